@@ -0,0 +1,60 @@
+package com.example.auction.benchmark;
+
+import com.example.auction.enums.LotStatus;
+import com.example.auction.model.Bid;
+import com.example.auction.model.Lot;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Генерация тестовых лотов и ставок для бенчмарков.
+ * Участники выбираются с перекосом: небольшая группа делает большую часть ставок.
+ */
+final class BenchmarkData {
+
+    static final int BIDDERS = 100;
+    private static final long START_TIME = Timestamp.valueOf("2026-10-18 12:00:00").getTime();
+
+    private BenchmarkData() {
+    }
+
+    static String bidderName(Random random) {
+        double skewed = Math.pow(random.nextDouble(), 3);
+        return "bidder-" + (int) (skewed * BIDDERS);
+    }
+
+    static Lot lotWithBids(int lotId, int bidCount) {
+        Lot lot = new Lot();
+        lot.setId(lotId);
+        lot.setStatus(LotStatus.STARTED);
+        lot.setTitle("Лот " + lotId);
+        lot.setDescription("Описание лота " + lotId);
+        lot.setStartPrice(1000);
+        lot.setBidPrice(50);
+        List<Bid> bids = new ArrayList<>(bidCount);
+        Random random = new Random(lotId);
+        for (int i = 0; i < bidCount; i++) {
+            Bid bid = new Bid();
+            bid.setId(i + 1);
+            bid.setBidderName(bidderName(random));
+            bid.setBidTime(new Timestamp(START_TIME + i * 10L));
+            bid.setLotByLotId(lot);
+            bids.add(bid);
+        }
+        lot.setBidsById(bids);
+        if (bidCount > 0) {
+            Bid first = bids.get(0);
+            Bid last = bids.get(bidCount - 1);
+            lot.setFirstBidderName(first.getBidderName());
+            lot.setFirstBidTime(first.getBidTime());
+            lot.setLastBidderName(last.getBidderName());
+            lot.setLastBidTime(last.getBidTime());
+        }
+        lot.setBidCount(bidCount);
+        lot.setCurrentPrice(lot.getStartPrice() + bidCount * lot.getBidPrice());
+        return lot;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.auction.benchmark;
+
+import com.example.auction.dto.LotCsvRow;
+import com.example.auction.enums.LotStatus;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Формирование CSV экспорта: целиком в массив байт (прежний способ)
+ * и потоком с постраничной записью, как в exportLotsToCSV.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CsvExportBenchmark {
+
+    private static final int PAGE_SIZE = 1000;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int lotCount;
+
+    private List<LotCsvRow> rows;
+
+    @Setup
+    public void setUp() {
+        rows = new ArrayList<>(lotCount);
+        for (int i = 1; i <= lotCount; i++) {
+            rows.add(new LotCsvRow(i, "Лот " + i, LotStatus.STARTED, i % 10 == 0 ? "нет ставок" : "bidder-" + i % 100, 1000 + i));
+        }
+    }
+
+    @Benchmark
+    public int toByteArray() throws IOException {
+        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+             CSVPrinter csvPrinter = new CSVPrinter(writer, CSVFormat.POSTGRESQL_CSV)) {
+            printAll(csvPrinter);
+            csvPrinter.flush();
+            return outputStream.toByteArray().length;
+        }
+    }
+
+    @Benchmark
+    public long streaming() throws IOException {
+        CountingOutputStream outputStream = new CountingOutputStream();
+        CSVPrinter csvPrinter = new CSVPrinter(new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)),
+                CSVFormat.POSTGRESQL_CSV);
+        csvPrinter.printRecord("id", "title", "status", "lastBidder", "currentPrice");
+        for (int from = 0; from < rows.size(); from += PAGE_SIZE) {
+            for (LotCsvRow row : rows.subList(from, Math.min(from + PAGE_SIZE, rows.size()))) {
+                csvPrinter.printRecord(row.id(), row.title(), row.status(), row.lastBidder(), row.currentPrice());
+            }
+            csvPrinter.flush();
+        }
+        return outputStream.count;
+    }
+
+    private void printAll(CSVPrinter csvPrinter) throws IOException {
+        csvPrinter.printRecord("id", "title", "status", "lastBidder", "currentPrice");
+        for (LotCsvRow row : rows) {
+            csvPrinter.printRecord(row.id(), row.title(), row.status(), row.lastBidder(), row.currentPrice());
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.auction.benchmark;
+
+import com.example.auction.dto.FullLotDTO;
+import com.example.auction.dto.LotDto;
+import com.example.auction.model.Lot;
+import com.example.auction.utilities.LotMapper;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отображение Lot в LotDto и FullLotDTO при разном количестве ставок у лота:
+ * ModelMapper на рефлексии и LotMapper, используемый сервисом.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LotMappingBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int bidCount;
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final LotMapper lotMapper = new LotMapper();
+    private Lot lot;
+
+    @Setup
+    public void setUp() {
+        lot = BenchmarkData.lotWithBids(1, bidCount);
+    }
+
+    @Benchmark
+    public LotDto modelMapperLotDto() {
+        return modelMapper.map(lot, LotDto.class);
+    }
+
+    @Benchmark
+    public FullLotDTO modelMapperFullLotDto() {
+        FullLotDTO fullLotDTO = new FullLotDTO();
+        modelMapper.map(lot, fullLotDTO);
+        return fullLotDTO;
+    }
+
+    @Benchmark
+    public LotDto lotMapperLotDto() {
+        return lotMapper.toLotDto(lot);
+    }
+
+    @Benchmark
+    public FullLotDTO lotMapperFullLotDto() {
+        return lotMapper.toFullLotDTO(lot);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.auction.benchmark;
+
+import com.example.auction.model.Bid;
+import com.example.auction.model.Lot;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Поиск самого активного участника: прежняя агрегация в памяти,
+ * GROUP BY по таблице ставок и чтение таблицы лидеров bid_stats (H2 в памяти).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MostFrequentBidderBenchmark {
+
+    private static final int LOT_ID = 1;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int bidCount;
+
+    private Lot lot;
+    private Connection connection;
+    private PreparedStatement groupByStatement;
+    private PreparedStatement leaderboardStatement;
+
+    @Setup
+    public void setUp() throws SQLException {
+        lot = BenchmarkData.lotWithBids(LOT_ID, bidCount);
+        connection = DriverManager.getConnection("jdbc:h2:mem:frequent" + bidCount + ";DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE bid (id INT PRIMARY KEY, bidder_name VARCHAR(255) NOT NULL, bid_time TIMESTAMP NOT NULL, lot_id INT NOT NULL)");
+            statement.execute("CREATE INDEX IDX_bid_lot_id_bidder_name ON bid (lot_id, bidder_name)");
+            statement.execute("CREATE TABLE bid_stats (lot_id INT NOT NULL, bidder_name VARCHAR(255) NOT NULL, bid_count INT NOT NULL, "
+                    + "last_bid_time TIMESTAMP NOT NULL, PRIMARY KEY (lot_id, bidder_name))");
+            statement.execute("CREATE INDEX IDX_bid_stats_lot_id_bid_count ON bid_stats (lot_id, bid_count DESC, last_bid_time DESC)");
+        }
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO bid VALUES (?, ?, ?, ?)")) {
+            for (Bid bid : lot.getBidsById()) {
+                insert.setInt(1, bid.getId());
+                insert.setString(2, bid.getBidderName());
+                insert.setTimestamp(3, bid.getBidTime());
+                insert.setInt(4, LOT_ID);
+                insert.addBatch();
+                if (bid.getId() % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO bid_stats SELECT lot_id, bidder_name, count(*), max(bid_time) FROM bid GROUP BY lot_id, bidder_name");
+        }
+        groupByStatement = connection.prepareStatement("SELECT bidder_name, count(*), max(bid_time) FROM bid WHERE lot_id = ? "
+                + "GROUP BY bidder_name ORDER BY count(*) DESC, max(bid_time) DESC LIMIT 2");
+        leaderboardStatement = connection.prepareStatement("SELECT bidder_name, bid_count, last_bid_time FROM bid_stats WHERE lot_id = ? "
+                + "ORDER BY bid_count DESC, last_bid_time DESC LIMIT 2");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public String inMemoryGrouping() {
+        List<Bid> bids = lot.getBidsById();
+        Map<String, Long> bidderCounts = bids.stream()
+                .collect(Collectors.groupingBy(Bid::getBidderName, Collectors.counting()));
+        long maxBidCount = bidderCounts.values().stream().max(Long::compare).orElse(0L);
+        List<String> mostFrequentBidders = bidderCounts.entrySet().stream()
+                .filter(entry -> entry.getValue() == maxBidCount)
+                .map(Map.Entry::getKey)
+                .toList();
+        if (mostFrequentBidders.size() != 1) {
+            return null;
+        }
+        String name = mostFrequentBidders.get(0);
+        return name + bids.stream().filter(bid -> bid.getBidderName().equals(name))
+                .max(Comparator.comparing(Bid::getBidTime)).orElseThrow().getBidTime();
+    }
+
+    @Benchmark
+    public String groupByQuery() throws SQLException {
+        return readTop(groupByStatement);
+    }
+
+    @Benchmark
+    public String leaderboardQuery() throws SQLException {
+        return readTop(leaderboardStatement);
+    }
+
+    private static String readTop(PreparedStatement statement) throws SQLException {
+        statement.setInt(1, LOT_ID);
+        try (ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() ? resultSet.getString(1) + resultSet.getTimestamp(3) : null;
+        }
+    }
+}
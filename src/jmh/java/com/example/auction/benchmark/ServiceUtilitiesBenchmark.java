@@ -0,0 +1,67 @@
+package com.example.auction.benchmark;
+
+import com.example.auction.config.HotLotStoreProperties;
+import com.example.auction.dto.BidDTO;
+import com.example.auction.hotstore.HotLotStore;
+import com.example.auction.model.Bid;
+import com.example.auction.model.Lot;
+import com.example.auction.utilities.ServiceUtilities;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Вычисление текущей цены и последней ставки: по агрегатам лота
+ * и прежним способом - по полному списку ставок. Хранилище открытых лотов выключено,
+ * чтобы измерялось вычисление по агрегатам.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceUtilitiesBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int bidCount;
+
+    private ServiceUtilities serviceUtilities;
+    private Lot lot;
+
+    @Setup
+    public void setUp() {
+        HotLotStoreProperties hotLotStoreProperties = new HotLotStoreProperties();
+        hotLotStoreProperties.setEnabled(false);
+        serviceUtilities = new ServiceUtilities(new HotLotStore(hotLotStoreProperties, null));
+        lot = BenchmarkData.lotWithBids(1, bidCount);
+    }
+
+    @Benchmark
+    public int calculateCurrentPrice() {
+        return serviceUtilities.calculateCurrentPrice(lot);
+    }
+
+    @Benchmark
+    public BidDTO getLastBidDTO() {
+        return serviceUtilities.getLastBidDTO(lot);
+    }
+
+    @Benchmark
+    public int calculateCurrentPriceFromBidList() {
+        return lot.getBidsById().size() * lot.getBidPrice() + lot.getStartPrice();
+    }
+
+    @Benchmark
+    public BidDTO getLastBidDTOFromBidList() {
+        List<Bid> bids = lot.getBidsById();
+        BidDTO lastBidDTO = new BidDTO();
+        if (!bids.isEmpty()) {
+            Bid lastBid = bids.get(bids.size() - 1);
+            lastBidDTO.setBidderName(lastBid.getBidderName());
+            lastBidDTO.setBidTime(lastBid.getBidTime());
+        }
+        return lastBidDTO;
+    }
+}
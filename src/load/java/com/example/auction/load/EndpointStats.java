@@ -0,0 +1,51 @@
+package com.example.auction.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Задержки и исходы запросов к одной конечной точке за время замера.
+ */
+final class EndpointStats {
+
+    private final String name;
+    private final Histogram latencyMicros = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    String name() {
+        return name;
+    }
+
+    /**
+     * @param status код ответа; 4xx - отказ по правилам аукциона, 5xx и ошибки соединения ({@code -1}) - сбой
+     */
+    void record(long startNanos, int status) {
+        latencyMicros.recordValue(Math.min(latencyMicros.getHighestTrackableValue(),
+                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos)));
+        if (status < 0 || status >= 500) {
+            errors.increment();
+        } else if (status >= 400) {
+            rejected.increment();
+        }
+    }
+
+    LoadReport.EndpointResult result(double seconds) {
+        LoadReport.EndpointResult result = new LoadReport.EndpointResult();
+        result.setRequests(latencyMicros.getTotalCount());
+        result.setThroughput(latencyMicros.getTotalCount() / seconds);
+        result.setP50Ms(latencyMicros.getValueAtPercentile(50) / 1000.0);
+        result.setP99Ms(latencyMicros.getValueAtPercentile(99) / 1000.0);
+        result.setP999Ms(latencyMicros.getValueAtPercentile(99.9) / 1000.0);
+        result.setRejected(rejected.sum());
+        result.setErrors(errors.sum());
+        return result;
+    }
+}
@@ -0,0 +1,383 @@
+package com.example.auction.load;
+
+import com.example.auction.AuctionApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Нагрузочный прогон AuctionController: создаёт и открывает лоты, затем ставки по распределению Ципфа
+ * идут одновременно с опросом лотов, а в конце лоты закрываются под продолжающимися ставками.
+ * Задержки по каждой конечной точке сравниваются с эталоном; при регрессии процесс завершается с кодом 1.
+ * <p>
+ * Без {@code --base-url} приложение поднимается в этом же процессе на случайном порту
+ * с настройками из application.properties, то есть против локального PostgreSQL.
+ * С {@code --compare-threads=true} один и тот же сценарий прогоняется дважды, на платформенных и на виртуальных
+ * потоках, каждый раз на заново поднятом приложении, и результаты выводятся рядом.
+ */
+public class LoadHarness {
+
+    private static final String BID = "POST /lot/bid";
+    private static final String FULL_LOT = "GET /lot/{id}";
+    private static final String FIRST_BIDDER = "GET /lot/{id}/first";
+    private static final String FREQUENT_BIDDER = "GET /lot/{id}/frequent";
+    private static final String STARTED_LOTS = "GET /lot?status=STARTED";
+    private static final String STOP_LOT = "POST /lot/{id}/stop";
+
+    private final Options options;
+    private final String baseUrl;
+    private final HttpClient client;
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    private final Map<String, String> etags = new ConcurrentHashMap<>();
+    private final ZipfianDistribution lotPopularity;
+
+    private volatile boolean measuring;
+    private volatile boolean running = true;
+
+    LoadHarness(Options options, String baseUrl) {
+        this.options = options;
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.lotPopularity = new ZipfianDistribution(options.lots(), options.zipfExponent());
+        for (String name : List.of(BID, FULL_LOT, FIRST_BIDDER, FREQUENT_BIDDER, STARTED_LOTS, STOP_LOT)) {
+            stats.put(name, new EndpointStats(name));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        if (options.compareThreads()) {
+            System.exit(compareThreads(options));
+        }
+        ConfigurableApplicationContext application = null;
+        String baseUrl = options.baseUrl();
+        if (baseUrl == null) {
+            application = startApplication(options.virtualThreads());
+            baseUrl = baseUrl(application);
+        }
+        int exitCode;
+        try {
+            LoadHarness harness = new LoadHarness(options, baseUrl);
+            exitCode = harness.report(harness.run());
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+        }
+        System.exit(exitCode);
+    }
+
+    private static ConfigurableApplicationContext startApplication(boolean virtualThreads) {
+        return new SpringApplicationBuilder(AuctionApplication.class)
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads)
+                .run();
+    }
+
+    private static String baseUrl(ConfigurableApplicationContext application) {
+        return "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+    }
+
+    /**
+     * Прогоняет сценарий на платформенных, затем на виртуальных потоках и выводит результаты рядом.
+     * Эталон не используется: режимы сравниваются друг с другом, прогон падает только по доле сбоев.
+     */
+    private static int compareThreads(Options options) throws Exception {
+        if (options.baseUrl() != null) {
+            throw new IllegalArgumentException("--compare-threads поднимает приложение сам и несовместим с --base-url");
+        }
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Виртуальные потоки требуют Java 21, запущено на Java " + Runtime.version().feature());
+        }
+        Map<String, LoadReport> results = new LinkedHashMap<>();
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            ConfigurableApplicationContext application = startApplication(virtualThreads);
+            try {
+                results.put(virtualThreads ? "virtual" : "platform", new LoadHarness(options, baseUrl(application)).run());
+            } finally {
+                application.close();
+            }
+        }
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Path resultFile = options.result();
+        if (resultFile.getParent() != null) {
+            Files.createDirectories(resultFile.getParent());
+        }
+        mapper.writeValue(resultFile.toFile(), results);
+
+        LoadReport platform = results.get("platform");
+        LoadReport virtual = results.get("virtual");
+        System.out.printf("%-26s %-9s %9s %10s %9s %9s %9s %9s %7s%n",
+                "endpoint", "threads", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "rejected", "errors");
+        for (String name : platform.getEndpoints().keySet()) {
+            results.forEach((mode, result) -> {
+                LoadReport.EndpointResult endpoint = result.getEndpoints().get(name);
+                System.out.printf("%-26s %-9s %9d %10.1f %9.2f %9.2f %9.2f %9d %7d%n", name, mode, endpoint.getRequests(),
+                        endpoint.getThroughput(), endpoint.getP50Ms(), endpoint.getP99Ms(), endpoint.getP999Ms(),
+                        endpoint.getRejected(), endpoint.getErrors());
+            });
+            LoadReport.EndpointResult before = platform.getEndpoints().get(name);
+            LoadReport.EndpointResult after = virtual.getEndpoints().get(name);
+            if (before.getThroughput() > 0 && before.getP99Ms() > 0) {
+                System.out.printf("%-26s %-9s %9s %9.2fx %9s %8.2fx%n", "", "virt/plat", "",
+                        after.getThroughput() / before.getThroughput(), "", after.getP99Ms() / before.getP99Ms());
+            }
+        }
+
+        List<String> failures = new ArrayList<>();
+        results.forEach((mode, result) -> result.regressions(null, options.tolerance(), options.maxErrorRate())
+                .forEach(failure -> failures.add(mode + " " + failure)));
+        failures.forEach(failure -> System.out.println("Регрессия: " + failure));
+        return failures.isEmpty() ? 0 : 1;
+    }
+
+    LoadReport run() throws Exception {
+        List<Integer> lotIds = createLots();
+        ExecutorService workers = Executors.newFixedThreadPool(options.bidClients() + options.pollClients());
+        try {
+            List<Future<?>> clients = new ArrayList<>();
+            for (int i = 0; i < options.bidClients(); i++) {
+                clients.add(workers.submit(() -> bidLoop(lotIds)));
+            }
+            for (int i = 0; i < options.pollClients(); i++) {
+                clients.add(workers.submit(() -> pollLoop(lotIds)));
+            }
+
+            Thread.sleep(options.warmup().toMillis());
+            measuring = true;
+            long measureStart = System.nanoTime();
+            Thread.sleep(options.duration().toMillis());
+            closeLots(lotIds);
+            double seconds = (System.nanoTime() - measureStart) / 1e9;
+            measuring = false;
+            running = false;
+            for (Future<?> future : clients) {
+                future.get();
+            }
+            LoadReport result = new LoadReport();
+            stats.values().forEach(endpoint -> result.getEndpoints().put(endpoint.name(), endpoint.result(seconds)));
+            return result;
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private List<Integer> createLots() throws IOException, InterruptedException {
+        List<Integer> lotIds = new ArrayList<>(options.lots());
+        for (int i = 0; i < options.lots(); i++) {
+            Map<String, Object> lot = Map.of(
+                    "title", "Нагрузочный лот " + i,
+                    "description", "Лот нагрузочного прогона",
+                    "startPrice", 100,
+                    "bidPrice", 10);
+            HttpResponse<String> created = client.send(HttpRequest.newBuilder(uri("/lot"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(lot)))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (created.statusCode() != 200) {
+                throw new IllegalStateException("Не удалось создать лот: " + created.statusCode() + " " + created.body());
+            }
+            int lotId = mapper.readTree(created.body()).path("id").asInt();
+            HttpResponse<String> started = client.send(HttpRequest.newBuilder(uri("/lot/" + lotId + "/start"))
+                            .POST(HttpRequest.BodyPublishers.noBody())
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (started.statusCode() != 200) {
+                throw new IllegalStateException("Не удалось открыть лот " + lotId + ": " + started.statusCode());
+            }
+            lotIds.add(lotId);
+        }
+        return lotIds;
+    }
+
+    private void bidLoop(List<Integer> lotIds) {
+        while (running) {
+            int lotId = lotIds.get(lotPopularity.next());
+            String bidder = "{\"bidderName\":\"bidder-" + ThreadLocalRandom.current().nextInt(options.bidders()) + "\"}";
+            call(BID, HttpRequest.newBuilder(uri("/lot/bid?Id=" + lotId))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(bidder)));
+        }
+    }
+
+    private void pollLoop(List<Integer> lotIds) {
+        while (running) {
+            int lotId = lotIds.get(lotPopularity.next());
+            switch (ThreadLocalRandom.current().nextInt(4)) {
+                case 0 -> conditionalGet(FULL_LOT, "/lot/" + lotId);
+                case 1 -> conditionalGet(FIRST_BIDDER, "/lot/" + lotId + "/first");
+                case 2 -> conditionalGet(FREQUENT_BIDDER, "/lot/" + lotId + "/frequent");
+                default -> call(STARTED_LOTS, HttpRequest.newBuilder(
+                        uri("/lot?status=STARTED&page=" + ThreadLocalRandom.current().nextInt(3))).GET());
+            }
+        }
+    }
+
+    private void conditionalGet(String endpoint, String path) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path)).GET();
+        String etag = options.conditional() ? etags.get(path) : null;
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        HttpResponse<Void> response = call(endpoint, request);
+        if (options.conditional() && response != null) {
+            response.headers().firstValue("ETag").ifPresent(value -> etags.put(path, value));
+        }
+    }
+
+    /**
+     * Закрывает лоты параллельно, пока клиенты продолжают ставить и опрашивать.
+     */
+    private void closeLots(List<Integer> lotIds) throws Exception {
+        ExecutorService closers = Executors.newFixedThreadPool(Math.max(1, Math.min(lotIds.size(), 16)));
+        try {
+            List<Future<?>> stops = new ArrayList<>();
+            for (int lotId : lotIds) {
+                stops.add(closers.submit(() -> call(STOP_LOT, HttpRequest.newBuilder(uri("/lot/" + lotId + "/stop"))
+                        .POST(HttpRequest.BodyPublishers.noBody()))));
+            }
+            for (Future<?> stop : stops) {
+                stop.get();
+            }
+        } finally {
+            closers.shutdown();
+        }
+    }
+
+    private HttpResponse<Void> call(String endpoint, HttpRequest.Builder request) {
+        long start = System.nanoTime();
+        HttpResponse<Void> response = null;
+        int status;
+        try {
+            response = client.send(request.timeout(Duration.ofSeconds(30)).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            status = response.statusCode();
+        } catch (IOException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+            return null;
+        }
+        if (measuring) {
+            stats.get(endpoint).record(start, status);
+        }
+        return response;
+    }
+
+    private int report(LoadReport result) throws IOException {
+        Path resultFile = options.result();
+        if (resultFile.getParent() != null) {
+            Files.createDirectories(resultFile.getParent());
+        }
+        mapper.writeValue(resultFile.toFile(), result);
+        System.out.printf("%-26s %9s %10s %9s %9s %9s %9s %7s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "rejected", "errors");
+        result.getEndpoints().forEach((name, endpoint) -> System.out.printf(
+                "%-26s %9d %10.1f %9.2f %9.2f %9.2f %9d %7d%n", name, endpoint.getRequests(),
+                endpoint.getThroughput(), endpoint.getP50Ms(), endpoint.getP99Ms(), endpoint.getP999Ms(),
+                endpoint.getRejected(), endpoint.getErrors()));
+
+        Path baselineFile = options.baseline();
+        if (options.updateBaseline()) {
+            if (baselineFile.getParent() != null) {
+                Files.createDirectories(baselineFile.getParent());
+            }
+            mapper.writeValue(baselineFile.toFile(), result);
+            System.out.println("Эталон обновлён: " + baselineFile);
+            return 0;
+        }
+        LoadReport baseline = null;
+        if (Files.exists(baselineFile)) {
+            baseline = mapper.readValue(baselineFile.toFile(), LoadReport.class);
+        } else {
+            System.out.println("Эталон " + baselineFile + " не найден, сравниваются только сбои");
+        }
+        List<String> regressions = result.regressions(baseline, options.tolerance(), options.maxErrorRate());
+        regressions.forEach(regression -> System.out.println("Регрессия: " + regression));
+        return regressions.isEmpty() ? 0 : 1;
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    /**
+     * Параметры прогона в виде {@code --имя=значение}.
+     */
+    record Options(String baseUrl,
+                   int lots,
+                   int bidders,
+                   double zipfExponent,
+                   int bidClients,
+                   int pollClients,
+                   Duration warmup,
+                   Duration duration,
+                   boolean conditional,
+                   boolean virtualThreads,
+                   boolean compareThreads,
+                   Path result,
+                   Path baseline,
+                   boolean updateBaseline,
+                   double tolerance,
+                   double maxErrorRate) {
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (String arg : args) {
+                if (!arg.startsWith("--")) {
+                    throw new IllegalArgumentException("Ожидался аргумент вида --имя=значение: " + arg);
+                }
+                int separator = arg.indexOf('=');
+                if (separator < 0) {
+                    values.put(arg.substring(2), "true");
+                } else {
+                    values.put(arg.substring(2, separator), arg.substring(separator + 1));
+                }
+            }
+            return new Options(
+                    values.get("base-url"),
+                    Integer.parseInt(values.getOrDefault("lots", "50")),
+                    Integer.parseInt(values.getOrDefault("bidders", "1000")),
+                    Double.parseDouble(values.getOrDefault("zipf", "1.1")),
+                    Integer.parseInt(values.getOrDefault("bid-clients", "32")),
+                    Integer.parseInt(values.getOrDefault("poll-clients", "32")),
+                    DurationStyle.detectAndParse(values.getOrDefault("warmup", "10s")),
+                    DurationStyle.detectAndParse(values.getOrDefault("duration", "60s")),
+                    Boolean.parseBoolean(values.getOrDefault("conditional", "true")),
+                    Boolean.parseBoolean(values.getOrDefault("virtual-threads", "false")),
+                    Boolean.parseBoolean(values.getOrDefault("compare-threads", "false")),
+                    Path.of(values.getOrDefault("result", "target/load-result.json")),
+                    Path.of(values.getOrDefault("baseline", "src/load/resources/load-baseline.json")),
+                    Boolean.parseBoolean(values.getOrDefault("update-baseline", "false")),
+                    Double.parseDouble(values.getOrDefault("tolerance", "0.2")),
+                    Double.parseDouble(values.getOrDefault("max-error-rate", "0.01")));
+        }
+    }
+}
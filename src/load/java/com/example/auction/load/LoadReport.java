@@ -0,0 +1,72 @@
+package com.example.auction.load;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Результат прогона; в том же формате хранится эталон для сравнения.
+ */
+@Data
+@NoArgsConstructor
+public class LoadReport {
+
+    private Map<String, EndpointResult> endpoints = new LinkedHashMap<>();
+
+    /**
+     * Сравнивает прогон с эталоном. Задержки могут вырасти, а пропускная способность упасть
+     * не больше чем на долю {@code tolerance}; доля сбоев не должна превышать {@code maxErrorRate}.
+     *
+     * @return описания регрессий, пустой список - регрессий нет
+     */
+    public List<String> regressions(LoadReport baseline, double tolerance, double maxErrorRate) {
+        List<String> regressions = new ArrayList<>();
+        endpoints.forEach((name, current) -> {
+            if (current.getRequests() > 0 && (double) current.getErrors() / current.getRequests() > maxErrorRate) {
+                regressions.add(String.format("%s: сбоев %d из %d", name, current.getErrors(), current.getRequests()));
+            }
+            EndpointResult expected = baseline == null ? null : baseline.getEndpoints().get(name);
+            if (expected == null) {
+                return;
+            }
+            checkLatency(regressions, name, "p50", current.getP50Ms(), expected.getP50Ms(), tolerance);
+            checkLatency(regressions, name, "p99", current.getP99Ms(), expected.getP99Ms(), tolerance);
+            checkLatency(regressions, name, "p999", current.getP999Ms(), expected.getP999Ms(), tolerance);
+            if (current.getThroughput() < expected.getThroughput() * (1 - tolerance)) {
+                regressions.add(String.format("%s: пропускная способность %.1f/с при эталоне %.1f/с",
+                        name, current.getThroughput(), expected.getThroughput()));
+            }
+        });
+        return regressions;
+    }
+
+    private static void checkLatency(List<String> regressions, String name, String percentile,
+                                     double current, double expected, double tolerance) {
+        if (current > expected * (1 + tolerance)) {
+            regressions.add(String.format("%s: %s %.2f мс при эталоне %.2f мс", name, percentile, current, expected));
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class EndpointResult {
+
+        private long requests;
+
+        private double throughput;
+
+        private double p50Ms;
+
+        private double p99Ms;
+
+        private double p999Ms;
+
+        private long rejected;
+
+        private long errors;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.auction.load;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Распределение Ципфа по индексам 0..n-1: индекс 0 выбирается чаще всех,
+ * вероятность индекса k пропорциональна 1 / (k + 1)^exponent.
+ */
+final class ZipfianDistribution {
+
+    private final double[] cumulative;
+
+    ZipfianDistribution(int n, double exponent) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= sum;
+        }
+    }
+
+    int next() {
+        int index = Arrays.binarySearch(cumulative, ThreadLocalRandom.current().nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+}
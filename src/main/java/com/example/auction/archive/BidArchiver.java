@@ -0,0 +1,84 @@
+package com.example.auction.archive;
+
+import com.example.auction.config.BidArchiveProperties;
+import com.example.auction.repository.BidArchiveRepository;
+import com.example.auction.utilities.ServiceUtilities;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Периодически переносит ставки давно остановленных лотов из bid в bid_archive небольшими транзакциями.
+ * Ответы по таким лотам не меняются: первый и последний ставившие хранятся в строке лота,
+ * количество ставок участников - в bid_stats.
+ */
+@Component
+@ConditionalOnProperty(prefix = "auction.archive", name = "enabled", havingValue = "true")
+public class BidArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(BidArchiver.class);
+
+    private final BidArchiveRepository bidArchiveRepository;
+    private final BidArchiveProperties properties;
+    private final ServiceUtilities serviceUtilities;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bid-archiver");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean running = true;
+
+    public BidArchiver(BidArchiveRepository bidArchiveRepository, BidArchiveProperties properties,
+                       ServiceUtilities serviceUtilities, TransactionTemplate transactionTemplate) {
+        this.bidArchiveRepository = bidArchiveRepository;
+        this.properties = properties;
+        this.serviceUtilities = serviceUtilities;
+        this.transactionTemplate = transactionTemplate;
+        long intervalMillis = properties.getInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::archive, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void archive() {
+        int lots = 0;
+        int bids = 0;
+        try {
+            while (running) {
+                Timestamp now = serviceUtilities.currentBidTime();
+                Timestamp inactiveSince = new Timestamp(now.getTime() - properties.getAfter().toMillis());
+                int[] moved = transactionTemplate.execute(status -> {
+                    List<Integer> lotIds = bidArchiveRepository.lockLotsToArchive(inactiveSince, properties.getLotBatchSize());
+                    if (lotIds.isEmpty()) {
+                        return new int[]{0, 0};
+                    }
+                    return new int[]{lotIds.size(), bidArchiveRepository.moveBids(lotIds, now)};
+                });
+                lots += moved[0];
+                bids += moved[1];
+                if (moved[0] < properties.getLotBatchSize()) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Ошибка архивирования ставок: {}", e.getMessage());
+        }
+        if (lots > 0) {
+            logger.info("Перенесено в архив ставок: {}, лотов: {}", bids, lots);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        scheduler.shutdown();
+    }
+}
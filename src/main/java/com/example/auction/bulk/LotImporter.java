@@ -0,0 +1,245 @@
+package com.example.auction.bulk;
+
+import com.example.auction.config.LotImportProperties;
+import com.example.auction.dto.CreationLotDTO;
+import com.example.auction.dto.LotImportErrorDTO;
+import com.example.auction.dto.LotImportResultDTO;
+import com.example.auction.enums.LotImportFormat;
+import com.example.auction.event.LotsImportedEvent;
+import com.example.auction.repository.LotImportRepository;
+import com.example.auction.utilities.LotValidator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Массовый импорт лотов. Входной поток читается и проверяется построчно, корректные строки
+ * накапливаются частями фиксированного размера и загружаются через COPY, поэтому расход памяти
+ * не зависит от размера файла. Каждая часть загружается в своей транзакции: ошибка базы данных
+ * отклоняет только строки этой части.
+ */
+@Component
+public class LotImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LotImporter.class);
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("title", "description", "startPrice", "bidPrice");
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final LotImportRepository lotImportRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LotImportProperties properties;
+    private final ObjectReader lotReader;
+
+    public LotImporter(LotImportRepository lotImportRepository, TransactionTemplate transactionTemplate,
+                       ApplicationEventPublisher eventPublisher, LotImportProperties properties, ObjectMapper objectMapper) {
+        this.lotImportRepository = lotImportRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.lotReader = objectMapper.readerFor(CreationLotDTO.class);
+    }
+
+    public LotImportResultDTO importLots(InputStream inputStream, LotImportFormat format) throws IOException {
+        long started = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+        ImportRun run = new ImportRun();
+        if (format == LotImportFormat.CSV) {
+            readCsv(reader, run);
+        } else {
+            readNdjson(reader, run);
+        }
+        run.flush();
+        logger.info("Импорт лотов завершен: загружено {}, отклонено {} за {} мс", run.result.getImported(),
+                run.result.getRejected(), (System.nanoTime() - started) / 1_000_000);
+        return run.result;
+    }
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        CSVParser parser = CSVFormat.DEFAULT.builder()
+                .setHeader()
+                .setSkipHeaderRecord(true)
+                .setIgnoreEmptyLines(true)
+                .setTrim(true)
+                .build()
+                .parse(reader);
+        for (String column : REQUIRED_COLUMNS) {
+            if (!parser.getHeaderMap().containsKey(column)) {
+                run.reject(1, "В заголовке нет столбца " + column);
+                return;
+            }
+        }
+        boolean hasOpenAt = parser.getHeaderMap().containsKey("openAt");
+        boolean hasCloseAt = parser.getHeaderMap().containsKey("closeAt");
+        long line = 1;
+        try {
+            for (CSVRecord record : parser) {
+                // строка заголовка не входит в нумерацию записей
+                line = record.getRecordNumber() + 1;
+                CreationLotDTO lot;
+                try {
+                    lot = new CreationLotDTO();
+                    lot.setTitle(record.get("title"));
+                    lot.setDescription(record.get("description"));
+                    lot.setStartPrice(parseInt(record.get("startPrice"), "startPrice"));
+                    lot.setBidPrice(parseInt(record.get("bidPrice"), "bidPrice"));
+                    lot.setOpenAt(hasOpenAt ? parseTimestamp(record.get("openAt"), "openAt") : null);
+                    lot.setCloseAt(hasCloseAt ? parseTimestamp(record.get("closeAt"), "closeAt") : null);
+                } catch (IllegalArgumentException e) {
+                    run.reject(line, e.getMessage());
+                    continue;
+                }
+                run.accept(line, lot);
+            }
+        } catch (UncheckedIOException e) {
+            // после нарушения структуры CSV границы следующих записей не определить
+            run.reject(line + 1, "Ошибка разбора CSV, импорт остановлен: " + e.getCause().getMessage());
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, ImportRun run) throws IOException {
+        long line = 0;
+        String json;
+        while ((json = reader.readLine()) != null) {
+            line++;
+            if (json.isBlank()) {
+                continue;
+            }
+            CreationLotDTO lot;
+            try {
+                lot = lotReader.readValue(json);
+            } catch (JsonProcessingException e) {
+                run.reject(line, "Некорректный JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            run.accept(line, lot);
+        }
+    }
+
+    private static int parseInt(String value, String column) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректное число в столбце " + column + ": " + value);
+        }
+    }
+
+    /**
+     * Время принимается в формате ISO-8601 с часовым поясом или как "yyyy-mm-dd hh:mm:ss" в часовом поясе сервера.
+     */
+    private static Timestamp parseTimestamp(String value, String column) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Timestamp.from(Instant.parse(value));
+        } catch (DateTimeParseException e) {
+            try {
+                return Timestamp.valueOf(value);
+            } catch (IllegalArgumentException invalid) {
+                throw new IllegalArgumentException("Некорректное время в столбце " + column + ": " + value);
+            }
+        }
+    }
+
+    /**
+     * Состояние одного импорта: текущая часть в формате COPY и итоговый результат.
+     */
+    private class ImportRun {
+
+        private final UUID importId = UUID.randomUUID();
+        private final LotImportResultDTO result = new LotImportResultDTO();
+        private final ByteArrayOutputStream chunk = new ByteArrayOutputStream(READ_BUFFER_SIZE);
+        private final CSVPrinter printer;
+        private int chunkRows;
+        private long chunkFirstLine;
+        private long chunkLastLine;
+
+        ImportRun() throws IOException {
+            printer = new CSVPrinter(new OutputStreamWriter(chunk, StandardCharsets.UTF_8), CSVFormat.POSTGRESQL_CSV);
+        }
+
+        void accept(long line, CreationLotDTO lot) throws IOException {
+            String error = LotValidator.validate(lot);
+            if (error != null) {
+                reject(line, error);
+                return;
+            }
+            printer.printRecord(importId, line, lot.getTitle(), lot.getDescription(), lot.getStartPrice(),
+                    lot.getBidPrice(), lot.getOpenAt(), lot.getCloseAt());
+            if (chunkRows++ == 0) {
+                chunkFirstLine = line;
+            }
+            chunkLastLine = line;
+            if (chunkRows == properties.getChunkSize()) {
+                flush();
+            }
+        }
+
+        void reject(long line, String message) {
+            result.setRejected(result.getRejected() + 1);
+            addError(line, message);
+        }
+
+        void flush() throws IOException {
+            printer.flush();
+            if (chunkRows == 0) {
+                return;
+            }
+            byte[] csv = chunk.toByteArray();
+            int rows = chunkRows;
+            chunk.reset();
+            chunkRows = 0;
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    lotImportRepository.copyToStaging(csv);
+                    List<Integer> scheduledLotIds = lotImportRepository.moveToLots(importId);
+                    eventPublisher.publishEvent(new LotsImportedEvent(rows, scheduledLotIds));
+                });
+                result.setImported(result.getImported() + rows);
+            } catch (DataAccessException | UncheckedIOException e) {
+                logger.error("Не удалось загрузить строки {}-{} импорта {}: {}", chunkFirstLine, chunkLastLine, importId, e.getMessage());
+                result.setRejected(result.getRejected() + rows);
+                addError(chunkFirstLine, "Строки " + chunkFirstLine + "-" + chunkLastLine + " не загружены: "
+                        + (e instanceof DataAccessException dataAccessException
+                        ? dataAccessException.getMostSpecificCause().getMessage() : e.getMessage()));
+            }
+        }
+
+        private void addError(long line, String message) {
+            if (result.getErrors().size() < properties.getMaxErrors()) {
+                LotImportErrorDTO error = new LotImportErrorDTO();
+                error.setLine(line);
+                error.setMessage(message);
+                result.getErrors().add(error);
+            } else {
+                result.setErrorsTruncated(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.auction.cache;
+
+import com.example.auction.enums.LotStatus;
+import com.example.auction.hotstore.HotLotStore;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Точечная очистка кэшей лотов.
+ * Кэш lotsByStatus хранит страницы по ключу "STATUS:page", поэтому при смене статуса
+ * удаляются все страницы старого и нового статуса, а не запись с id лота.
+ * Сериализованные ответы по лоту удаляются последними, после кэшей, из которых они строятся.
+ */
+@Component
+public class LotCacheEvictor {
+
+    public static final String[] LOT_CACHES = {"firstBidder", "mostFrequentBidder", "fullLot"};
+    public static final String LOTS_BY_STATUS = "lotsByStatus";
+
+    private final CacheManager cacheManager;
+    private final LotResponseCache lotResponseCache;
+    private final HotLotStore hotLotStore;
+
+    public LotCacheEvictor(CacheManager cacheManager, LotResponseCache lotResponseCache, HotLotStore hotLotStore) {
+        this.cacheManager = cacheManager;
+        this.lotResponseCache = lotResponseCache;
+        this.hotLotStore = hotLotStore;
+    }
+
+    public static String pageKey(LotStatus status, int page) {
+        return status.name() + ":" + page;
+    }
+
+    public void evictLot(int lotId) {
+        for (String cacheName : LOT_CACHES) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.evict(lotId);
+            }
+        }
+        lotResponseCache.evict(lotId);
+    }
+
+    /**
+     * Очищает все кэши лотов, когда неизвестно, какие лоты изменились.
+     */
+    public void evictAll() {
+        for (String cacheName : LOT_CACHES) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        Cache lotsByStatus = cacheManager.getCache(LOTS_BY_STATUS);
+        if (lotsByStatus != null) {
+            lotsByStatus.clear();
+        }
+        lotResponseCache.evictAll();
+        hotLotStore.clear();
+    }
+
+    public void evictStatusPages(LotStatus status) {
+        Cache cache = cacheManager.getCache(LOTS_BY_STATUS);
+        if (cache == null || status == null) {
+            return;
+        }
+        String prefix = status.name() + ":";
+        if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+            nativeCache.asMap().keySet().removeIf(key -> key.toString().startsWith(prefix));
+        } else {
+            cache.clear();
+        }
+    }
+}
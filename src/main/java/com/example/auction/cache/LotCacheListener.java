@@ -0,0 +1,114 @@
+package com.example.auction.cache;
+
+import com.example.auction.config.LotCacheProperties;
+import com.example.auction.enums.LotStatus;
+import com.example.auction.event.BidsPlacedEvent;
+import com.example.auction.event.LotStatusChangedEvent;
+import com.example.auction.event.LotsImportedEvent;
+import com.example.auction.service.AuctionService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Очищает кэши лотов после фиксации изменений и заранее
+ * заполняет первые страницы лотов в статусе STARTED.
+ * Выполняется раньше остальных слушателей, чтобы они читали уже свежие данные.
+ * Страницы STARTED пересчитываются и раз в {@code auction.cache.warm-interval}, чтобы не истекать
+ * по времени жизни кэша lotsByStatus и не отдавать первый запрос после истечения в БД.
+ */
+@Component
+public class LotCacheListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(LotCacheListener.class);
+
+    private final LotCacheEvictor lotCacheEvictor;
+    private final AuctionService auctionService;
+    private final LotCacheProperties properties;
+    private final AtomicBoolean warmScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService warmer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lot-cache-warmer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LotCacheListener(LotCacheEvictor lotCacheEvictor, AuctionService auctionService, LotCacheProperties properties) {
+        this.lotCacheEvictor = lotCacheEvictor;
+        this.auctionService = auctionService;
+        this.properties = properties;
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBidsPlaced(BidsPlacedEvent event) {
+        event.lotIds().forEach(lotCacheEvictor::evictLot);
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLotStatusChanged(LotStatusChangedEvent event) {
+        lotCacheEvictor.evictLot(event.lotId());
+        lotCacheEvictor.evictStatusPages(event.from());
+        lotCacheEvictor.evictStatusPages(event.to());
+        if (event.from() == LotStatus.STARTED || event.to() == LotStatus.STARTED) {
+            scheduleWarmStartedPages();
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLotsImported(LotsImportedEvent event) {
+        lotCacheEvictor.evictStatusPages(LotStatus.CREATED);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleWarmStartedPages();
+        long intervalMillis = properties.getWarmInterval().toMillis();
+        if (properties.getWarmStartedPages() > 0 && intervalMillis > 0) {
+            warmer.scheduleWithFixedDelay(this::warmStartedPages, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void scheduleWarmStartedPages() {
+        if (properties.getWarmStartedPages() <= 0 || !warmScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        warmer.execute(() -> {
+            warmScheduled.set(false);
+            warmStartedPages();
+        });
+    }
+
+    /**
+     * Страницы пересчитываются и записываются в кэш, даже если они там есть, поэтому их время жизни
+     * отсчитывается заново.
+     */
+    private void warmStartedPages() {
+        try {
+            for (int page = 0; page < properties.getWarmStartedPages(); page++) {
+                if (auctionService.refreshLotsByStatus(LotStatus.STARTED, page).isLast()) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Не удалось заполнить кэш страниц лотов STARTED: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        warmer.shutdownNow();
+    }
+}
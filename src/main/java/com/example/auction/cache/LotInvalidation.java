@@ -0,0 +1,63 @@
+package com.example.auction.cache;
+
+import com.example.auction.enums.LotStatus;
+
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Уведомление об изменении лотов на другом узле: "узел|лоты со ставками|лоты со сменой статуса|статусы".
+ */
+record LotInvalidation(String nodeId, Set<Integer> bidLots, Set<Integer> statusLots, Set<LotStatus> statuses) {
+
+    /**
+     * Ограничение PostgreSQL на размер уведомления - 8000 байт.
+     */
+    static final int MAX_PAYLOAD_LENGTH = 7900;
+
+    String encode() {
+        StringBuilder payload = new StringBuilder(nodeId).append('|');
+        join(payload, bidLots);
+        payload.append('|');
+        join(payload, statusLots);
+        payload.append('|');
+        join(payload, statuses);
+        return payload.toString();
+    }
+
+    static LotInvalidation decode(String payload) {
+        String[] parts = payload.split("\\|", -1);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Неверный формат уведомления: " + payload);
+        }
+        Set<LotStatus> statuses = EnumSet.noneOf(LotStatus.class);
+        for (String status : split(parts[3])) {
+            statuses.add(LotStatus.valueOf(status));
+        }
+        return new LotInvalidation(parts[0], lotIds(parts[1]), lotIds(parts[2]), statuses);
+    }
+
+    private static Set<Integer> lotIds(String part) {
+        Set<Integer> lotIds = new LinkedHashSet<>();
+        for (String lotId : split(part)) {
+            lotIds.add(Integer.parseInt(lotId));
+        }
+        return lotIds;
+    }
+
+    private static String[] split(String part) {
+        return part.isEmpty() ? new String[0] : part.split(",");
+    }
+
+    private static void join(StringBuilder payload, Set<?> values) {
+        boolean first = true;
+        for (Object value : values) {
+            if (!first) {
+                payload.append(',');
+            }
+            payload.append(value);
+            first = false;
+        }
+    }
+}
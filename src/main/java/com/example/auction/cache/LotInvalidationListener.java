@@ -0,0 +1,145 @@
+package com.example.auction.cache;
+
+import com.example.auction.config.ClusterCacheProperties;
+import com.example.auction.enums.LotStatus;
+import com.example.auction.event.RemoteLotsChangedEvent;
+import com.example.auction.ingest.BidIngestEngine;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Принимает уведомления других узлов на отдельном соединении вне пула и очищает локальные кэши лотов.
+ * Пока соединение было потеряно, уведомления могли пропасть, поэтому после переподключения
+ * кэши лотов очищаются полностью.
+ */
+@Component
+@ConditionalOnProperty(prefix = "auction.cluster", name = "enabled", havingValue = "true")
+public class LotInvalidationListener implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LotInvalidationListener.class);
+
+    private final ClusterCacheProperties properties;
+    private final DataSourceProperties dataSourceProperties;
+    private final LotCacheEvictor lotCacheEvictor;
+    private final BidIngestEngine bidIngestEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private volatile boolean running;
+    private Thread listener;
+
+    public LotInvalidationListener(ClusterCacheProperties properties, DataSourceProperties dataSourceProperties,
+                                   LotCacheEvictor lotCacheEvictor, BidIngestEngine bidIngestEngine,
+                                   ApplicationEventPublisher eventPublisher) {
+        this.properties = properties;
+        this.dataSourceProperties = dataSourceProperties;
+        this.lotCacheEvictor = lotCacheEvictor;
+        this.bidIngestEngine = bidIngestEngine;
+        this.eventPublisher = eventPublisher;
+    }
+
+    private void listenLoop() {
+        boolean reconnect = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + properties.getChannel());
+                }
+                if (reconnect) {
+                    lotCacheEvictor.evictAll();
+                    logger.info("Подписка на уведомления об изменении лотов восстановлена, кэши лотов очищены");
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                int pollTimeoutMillis = (int) properties.getPollTimeout().toMillis();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMillis);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            apply(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                logger.error("Соединение для уведомлений об изменении лотов потеряно: {}", e.getMessage());
+            }
+            reconnect = true;
+            pause();
+        }
+    }
+
+    private void apply(String payload) {
+        LotInvalidation invalidation;
+        try {
+            invalidation = LotInvalidation.decode(payload);
+        } catch (IllegalArgumentException e) {
+            logger.error("Пропущено уведомление об изменении лотов: {}", e.getMessage());
+            return;
+        }
+        if (invalidation.nodeId().equals(properties.getNodeId())) {
+            return;
+        }
+        invalidation.bidLots().forEach(lotCacheEvictor::evictLot);
+        for (int lotId : invalidation.statusLots()) {
+            // статус сменился на другом узле - прием ставок в памяти перечитает лот из БД
+            bidIngestEngine.closeLot(lotId);
+            lotCacheEvictor.evictLot(lotId);
+        }
+        for (LotStatus status : invalidation.statuses()) {
+            lotCacheEvictor.evictStatusPages(status);
+        }
+        Set<Integer> lotIds = new LinkedHashSet<>(invalidation.bidLots());
+        lotIds.addAll(invalidation.statusLots());
+        eventPublisher.publishEvent(new RemoteLotsChangedEvent(lotIds));
+    }
+
+    private void pause() {
+        if (!running) {
+            return;
+        }
+        try {
+            Thread.sleep(properties.getReconnectDelay().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listener = new Thread(this::listenLoop, "lot-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            try {
+                listener.join(properties.getPollTimeout().toMillis() * 2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            listener = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.auction.cache;
+
+import com.example.auction.config.ClusterCacheProperties;
+import com.example.auction.enums.LotStatus;
+import com.example.auction.event.BidsPlacedEvent;
+import com.example.auction.event.LotStatusChangedEvent;
+import com.example.auction.event.LotsImportedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Рассылает другим узлам id измененных лотов. Изменения накапливаются после фиксации
+ * транзакций и отправляются пакетом раз в интервал через pg_notify.
+ */
+@Component
+@ConditionalOnProperty(prefix = "auction.cluster", name = "enabled", havingValue = "true")
+public class LotInvalidationPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(LotInvalidationPublisher.class);
+
+    private static final String NOTIFY = "SELECT pg_notify(?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ClusterCacheProperties properties;
+    private final Set<Integer> bidLots = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> statusLots = ConcurrentHashMap.newKeySet();
+    private final Set<LotStatus> statuses = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lot-invalidation-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LotInvalidationPublisher(JdbcTemplate jdbcTemplate, ClusterCacheProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        long intervalMillis = properties.getFlushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBidsPlaced(BidsPlacedEvent event) {
+        bidLots.addAll(event.lotIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLotStatusChanged(LotStatusChangedEvent event) {
+        statusLots.add(event.lotId());
+        if (event.from() != null) {
+            statuses.add(event.from());
+        }
+        statuses.add(event.to());
+    }
+
+    /**
+     * Импортированные лоты еще не закэшированы ни на одном узле, достаточно очистить страницы статуса CREATED.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLotsImported(LotsImportedEvent event) {
+        statuses.add(LotStatus.CREATED);
+    }
+
+    private void flush() {
+        if (bidLots.isEmpty() && statusLots.isEmpty() && statuses.isEmpty()) {
+            return;
+        }
+        Set<Integer> changedStatusLots = drain(statusLots);
+        Set<LotStatus> changedStatuses = EnumSet.noneOf(LotStatus.class);
+        changedStatuses.addAll(drain(statuses));
+        Set<Integer> changedBidLots = drain(bidLots);
+        changedBidLots.removeAll(changedStatusLots);
+        try {
+            for (LotInvalidation invalidation : split(changedBidLots, changedStatusLots, changedStatuses)) {
+                jdbcTemplate.query(NOTIFY, (RowCallbackHandler) rs -> {
+                }, properties.getChannel(), invalidation.encode());
+            }
+        } catch (RuntimeException e) {
+            // вернем изменения, чтобы отправить их со следующим пакетом
+            bidLots.addAll(changedBidLots);
+            statusLots.addAll(changedStatusLots);
+            statuses.addAll(changedStatuses);
+            logger.error("Не удалось отправить уведомление об изменении лотов: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Делит изменения на уведомления, укладывающиеся в ограничение PostgreSQL на размер.
+     */
+    private List<LotInvalidation> split(Set<Integer> changedBidLots, Set<Integer> changedStatusLots, Set<LotStatus> changedStatuses) {
+        List<LotInvalidation> invalidations = new ArrayList<>();
+        Set<Integer> bidChunk = new LinkedHashSet<>();
+        Set<Integer> statusChunk = new LinkedHashSet<>();
+        int length = properties.getNodeId().length() + 64;
+        for (int lotId : changedStatusLots) {
+            statusChunk.add(lotId);
+            length += 12;
+            if (length > LotInvalidation.MAX_PAYLOAD_LENGTH) {
+                invalidations.add(new LotInvalidation(properties.getNodeId(), bidChunk, statusChunk, changedStatuses));
+                statusChunk = new LinkedHashSet<>();
+                length = properties.getNodeId().length() + 64;
+            }
+        }
+        for (int lotId : changedBidLots) {
+            bidChunk.add(lotId);
+            length += 12;
+            if (length > LotInvalidation.MAX_PAYLOAD_LENGTH) {
+                invalidations.add(new LotInvalidation(properties.getNodeId(), bidChunk, statusChunk, changedStatuses));
+                bidChunk = new LinkedHashSet<>();
+                statusChunk = new LinkedHashSet<>();
+                length = properties.getNodeId().length() + 64;
+            }
+        }
+        if (!bidChunk.isEmpty() || !statusChunk.isEmpty() || invalidations.isEmpty() && !changedStatuses.isEmpty()) {
+            invalidations.add(new LotInvalidation(properties.getNodeId(), bidChunk, statusChunk, changedStatuses));
+        }
+        return invalidations;
+    }
+
+    private static <T> Set<T> drain(Set<T> source) {
+        Set<T> drained = new LinkedHashSet<>(source);
+        source.removeAll(drained);
+        return drained;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        flush();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.auction.cache;
+
+import com.example.auction.enums.LotView;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Сериализованные ответы по лотам вместе с ETag, построенным по версии лота.
+ * Неизменившийся лот обходится поиском в хэш-таблице без сериализации.
+ * Ответ, вычисленный во время очистки записей лота, в кэше не остается:
+ * перед вычислением берется отметка полосы лота, и если очистка ее сдвинула, запись удаляется.
+ */
+@Component
+public class LotResponseCache {
+
+    public static final String LOT_RESPONSES = "lotResponses";
+
+    private static final int STAMP_STRIPES = 1024;
+
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> cache;
+    private final ObjectMapper objectMapper;
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMP_STRIPES);
+
+    @SuppressWarnings("unchecked")
+    public LotResponseCache(CacheManager cacheManager, ObjectMapper objectMapper) {
+        this.cache = (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cacheManager.getCache(LOT_RESPONSES).getNativeCache();
+        this.objectMapper = objectMapper;
+    }
+
+    public CachedResponse get(int lotId, LotView view) {
+        Object responses = cache.getIfPresent(lotId);
+        return responses == null ? null : ((LotResponses) responses).get(view);
+    }
+
+    /**
+     * Отметка, которую нужно взять до чтения версии и данных лота и передать в {@link #put}.
+     */
+    public long stamp(int lotId) {
+        return stamps.get(stripe(lotId));
+    }
+
+    public CachedResponse put(int lotId, LotView view, long version, Object value, long stamp) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Ошибка сериализации ответа по лоту " + lotId, e);
+        }
+        CachedResponse response = new CachedResponse("\"" + lotId + "." + version + "\"", body);
+        ((LotResponses) cache.get(lotId, id -> new LotResponses())).set(view, response);
+        if (stamps.get(stripe(lotId)) != stamp) {
+            cache.invalidate(lotId);
+        }
+        return response;
+    }
+
+    public void evict(int lotId) {
+        stamps.incrementAndGet(stripe(lotId));
+        cache.invalidate(lotId);
+    }
+
+    public void evictAll() {
+        for (int i = 0; i < STAMP_STRIPES; i++) {
+            stamps.incrementAndGet(i);
+        }
+        cache.invalidateAll();
+    }
+
+    private static int stripe(int lotId) {
+        int hash = lotId * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (STAMP_STRIPES - 1);
+    }
+
+    public record CachedResponse(String etag, byte[] body) {
+    }
+
+    private static final class LotResponses {
+        private final AtomicReferenceArray<CachedResponse> views = new AtomicReferenceArray<>(LotView.values().length);
+
+        private CachedResponse get(LotView view) {
+            return views.get(view.ordinal());
+        }
+
+        private void set(LotView view, CachedResponse response) {
+            views.set(view.ordinal(), response);
+        }
+    }
+}
@@ -1,30 +1,59 @@
 package com.example.auction.config;
 
+import com.example.auction.hotstore.HotLotStore;
+import com.example.auction.utilities.LotMapper;
 import com.example.auction.utilities.ServiceUtilities;
-import org.modelmapper.ModelMapper;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.List;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties({BidIngestProperties.class, LotCacheProperties.class, LotPushProperties.class,
+        LotLifecycleProperties.class, ReplicaDataSourceProperties.class,
+        ClusterCacheProperties.class, BidArchiveProperties.class, LotImportProperties.class,
+        AuctionStatsProperties.class, HotLotStoreProperties.class})
+// репозитории не открывают собственных транзакций только для чтения: на реплику идут лишь явно помеченные методы сервиса
+@EnableJpaRepositories(basePackages = "com.example.auction.repository", enableDefaultTransactions = false)
 public class AppConfig {
 
+    private static final List<String> CACHE_NAMES = List.of("firstBidder", "mostFrequentBidder", "fullLot", "lotsByStatus", "lotResponses");
+
     @Bean
-    public ModelMapper modelMapper() {
-        return new ModelMapper();
+    public LotMapper lotMapper() {
+        return new LotMapper();
     }
 
     @Bean
-    public ServiceUtilities serviceUtilities() {
-        return new ServiceUtilities();
+    public ServiceUtilities serviceUtilities(HotLotStore hotLotStore) {
+        return new ServiceUtilities(hotLotStore);
     }
 
+    /**
+     * Сериализация DTO через сгенерированные лямбды вместо рефлексии; Spring Boot регистрирует модуль в ObjectMapper.
+     */
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager("firstBidder", "mostFrequentBidder", "fullLot", "lotsByStatus");
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
     }
-}
 
+    @Bean
+    public CacheManager cacheManager(LotCacheProperties lotCacheProperties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheNames(CACHE_NAMES);
+        for (String cacheName : CACHE_NAMES) {
+            String spec = lotCacheProperties.getSpecs().getOrDefault(cacheName, lotCacheProperties.getDefaultSpec());
+            cacheManager.registerCustomCache(cacheName, Caffeine.from(spec).recordStats().build());
+        }
+        return cacheManager;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.auction.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Сводная статистика аукциона: свертка журнала изменений в сводные таблицы и снимок для /stats.
+ */
+@Data
+@ConfigurationProperties(prefix = "auction.stats")
+public class AuctionStatsProperties {
+
+    /**
+     * Интервал свертки журнала изменений и обновления снимка.
+     */
+    private Duration interval = Duration.ofSeconds(5);
+
+    /**
+     * Число записей журнала, сворачиваемых одним запросом.
+     */
+    private int batchSize = 10000;
+
+    private int topBidders = 10;
+
+    /**
+     * За какой период в снимок попадает количество ставок по минутам.
+     */
+    private Duration minuteWindow = Duration.ofHours(1);
+
+    /**
+     * Сколько хранятся счетчики ставок по минутам.
+     */
+    private Duration minuteRetention = Duration.ofDays(1);
+}
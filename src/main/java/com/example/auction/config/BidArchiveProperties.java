@@ -0,0 +1,28 @@
+package com.example.auction.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Перенос ставок давно остановленных лотов в архивную таблицу bid_archive.
+ */
+@Data
+@ConfigurationProperties(prefix = "auction.archive")
+public class BidArchiveProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Ставки лота переносятся, если по нему не было активности дольше этого времени.
+     */
+    private Duration after = Duration.ofDays(30);
+
+    private Duration interval = Duration.ofHours(1);
+
+    /**
+     * Число лотов, ставки которых переносятся в одной транзакции.
+     */
+    private int lotBatchSize = 100;
+}
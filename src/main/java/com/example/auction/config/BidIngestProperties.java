@@ -0,0 +1,55 @@
+package com.example.auction.config;
+
+import com.example.auction.enums.IngestAckMode;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Настройки режима быстрого приема ставок (fast-ingest).
+ */
+@Data
+@ConfigurationProperties(prefix = "auction.ingest")
+public class BidIngestProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * ENQUEUE - ставка подтверждается сразу после постановки в очередь,
+     * FLUSH - после записи пакета в БД,
+     * JOURNAL - после сброса на диск локального журнала, из которого ставки записываются в БД.
+     */
+    private IngestAckMode ackMode = IngestAckMode.ENQUEUE;
+
+    private int queueCapacity = 65536;
+
+    private int batchSize = 500;
+
+    private Duration flushInterval = Duration.ofMillis(20);
+
+    private Duration ackTimeout = Duration.ofSeconds(5);
+
+    private int maxFlushAttempts = 3;
+
+    /**
+     * Пауза перед повторной записью пакета; удваивается с каждой попыткой.
+     */
+    private Duration flushRetryBackoff = Duration.ofMillis(100);
+
+    private String journalDirectory = "bid-journal";
+
+    private DataSize journalSegmentSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Идентификатор журнала в таблице bid_journal_checkpoint; должен сохраняться между перезапусками узла.
+     * Пустое значение - имя хоста.
+     */
+    private String journalNodeId = "";
+
+    /**
+     * false - сегменты, ставки которых уже записаны в БД, не удаляются и остаются для аудита.
+     */
+    private boolean journalDeleteApplied = true;
+}
@@ -0,0 +1,36 @@
+package com.example.auction.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Согласование кэшей лотов между узлами через PostgreSQL LISTEN/NOTIFY.
+ */
+@Data
+@ConfigurationProperties(prefix = "auction.cluster")
+public class ClusterCacheProperties {
+
+    private boolean enabled = false;
+
+    private String channel = "lot_invalidation";
+
+    /**
+     * Идентификатор узла; собственные уведомления узел пропускает.
+     */
+    private String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * Интервал, за который изменения лотов объединяются в одно уведомление.
+     */
+    private Duration flushInterval = Duration.ofMillis(20);
+
+    /**
+     * Наибольшее время ожидания уведомлений за один опрос соединения.
+     */
+    private Duration pollTimeout = Duration.ofMillis(500);
+
+    private Duration reconnectDelay = Duration.ofSeconds(1);
+}
@@ -0,0 +1,31 @@
+package com.example.auction.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Режим выполнения на виртуальных потоках: spring.threads.virtual.enabled=true и Java 21
+ * (профиль сборки java21). На более старой Java Spring Boot оставляет обычные потоки, и конфигурация не применяется.
+ * Обработка запросов и сервисный слой выполняются на виртуальных потоках Tomcat,
+ * а параллелизм ограничивается семафором перед пулом соединений.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class ExecutionConfig {
+
+    @Bean
+    public FilterRegistrationBean<RequestConcurrencyFilter> requestConcurrencyFilter(
+            @Value("${auction.execution.max-concurrent-requests:2000}") int maxConcurrentRequests,
+            @Value("${auction.execution.acquire-timeout:5s}") Duration acquireTimeout) {
+        FilterRegistrationBean<RequestConcurrencyFilter> registration =
+                new FilterRegistrationBean<>(new RequestConcurrencyFilter(maxConcurrentRequests, acquireTimeout));
+        registration.setOrder(Integer.MIN_VALUE);
+        return registration;
+    }
+}
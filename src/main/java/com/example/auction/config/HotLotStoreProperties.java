@@ -0,0 +1,38 @@
+package com.example.auction.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Хранилище состояния открытых лотов вне кучи.
+ */
+@Data
+@ConfigurationProperties(prefix = "auction.hot-store")
+public class HotLotStoreProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Начальная емкость в лотах; таблицы растут удвоением.
+     */
+    private int initialCapacity = 16384;
+
+    /**
+     * Число сегментов со своей блокировкой; округляется вверх до степени двойки, не больше 1024.
+     */
+    private int segments = 64;
+
+    /**
+     * Файл снимка для быстрого прогрева после перезапуска; пустое значение отключает снимки.
+     */
+    private String snapshotFile = "";
+
+    private Duration snapshotInterval = Duration.ofMinutes(1);
+
+    /**
+     * Сколько лотов из снимка проверяется по версии в БД одним запросом.
+     */
+    private int restoreBatchSize = 10000;
+}
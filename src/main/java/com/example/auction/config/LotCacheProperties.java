@@ -0,0 +1,28 @@
+package com.example.auction.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Настройки кэшей лотов: спецификация Caffeine для каждого кэша
+ * и количество заранее вычисляемых страниц лотов в статусе STARTED.
+ */
+@Data
+@ConfigurationProperties(prefix = "auction.cache")
+public class LotCacheProperties {
+
+    private String defaultSpec = "maximumSize=10000,expireAfterWrite=10m";
+
+    private Map<String, String> specs = new LinkedHashMap<>();
+
+    private int warmStartedPages = 3;
+
+    /**
+     * Период пересчета страниц STARTED; должен быть меньше времени жизни кэша lotsByStatus, 0 отключает пересчет.
+     */
+    private Duration warmInterval = Duration.ofSeconds(50);
+}
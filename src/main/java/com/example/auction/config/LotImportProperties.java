@@ -0,0 +1,22 @@
+package com.example.auction.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Массовый импорт лотов из CSV и NDJSON.
+ */
+@Data
+@ConfigurationProperties(prefix = "auction.import")
+public class LotImportProperties {
+
+    /**
+     * Число строк, загружаемых через COPY в одной транзакции.
+     */
+    private int chunkSize = 10000;
+
+    /**
+     * Сколько ошибок по строкам возвращается в ответе; остальные только учитываются в числе отклоненных.
+     */
+    private int maxErrors = 100;
+}
@@ -0,0 +1,46 @@
+package com.example.auction.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки автоматического открытия и закрытия торгов по расписанию.
+ */
+@Data
+@ConfigurationProperties(prefix = "auction.lifecycle")
+public class LotLifecycleProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Шаг колеса таймеров - точность срабатывания расписания.
+     */
+    private Duration tick = Duration.ofMillis(100);
+
+    /**
+     * Число ячеек колеса, округляется вверх до степени двойки.
+     */
+    private int wheelSize = 4096;
+
+    /**
+     * Наибольшее число лотов в одном UPDATE при смене статуса.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Размер страницы при восстановлении расписания из БД при старте.
+     */
+    private int restorePageSize = 10000;
+
+    /**
+     * Ставка, сделанная меньше чем за это время до закрытия, продлевает торги. Ноль отключает продление.
+     */
+    private Duration antiSnipingWindow = Duration.ZERO;
+
+    /**
+     * Время закрытия после продления, отсчитывается от времени ставки.
+     */
+    private Duration antiSnipingExtension = Duration.ofMinutes(1);
+}
@@ -0,0 +1,36 @@
+package com.example.auction.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки рассылки изменений лотов подписчикам (Server-Sent Events).
+ */
+@Data
+@ConfigurationProperties(prefix = "auction.push")
+public class LotPushProperties {
+
+    /**
+     * Окно, в течение которого изменения одного лота объединяются в одно сообщение.
+     */
+    private Duration coalesceWindow = Duration.ofMillis(200);
+
+    private Duration subscriptionTimeout = Duration.ofMinutes(30);
+
+    /**
+     * Потоки отправки; при spring.threads.virtual.enabled=true на Java 21 отправки идут на виртуальных потоках.
+     */
+    private int sendThreads = 16;
+
+    /**
+     * Сколько подписчиков может ждать свободного потока отправки; подписчик, не попавший в очередь, отключается.
+     */
+    private int sendQueueCapacity = 4096;
+
+    /**
+     * Подписчик, отправка которому длится дольше, отписывается.
+     */
+    private Duration sendTimeout = Duration.ofSeconds(10);
+}
@@ -0,0 +1,40 @@
+package com.example.auction.config;
+
+import com.example.auction.metrics.QueryCountFilter;
+import com.example.auction.metrics.QueryCountInspector;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Метрики сервиса для /actuator/prometheus. Метрики кэшей, пула Hikari и HTTP-запросов
+ * регистрирует Spring Boot; здесь - таймеры методов с {@code @Timed} и число SQL-запросов на запрос.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public QueryCountInspector queryCountInspector() {
+        return new QueryCountInspector();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCountCustomizer(QueryCountInspector queryCountInspector) {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, queryCountInspector);
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryCountFilter> queryCountFilter(QueryCountInspector queryCountInspector,
+                                                                     MeterRegistry meterRegistry) {
+        return new FilterRegistrationBean<>(new QueryCountFilter(queryCountInspector, meterRegistry));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.auction.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+
+/**
+ * Клиенты, недавно записавшие данные. Их чтения идут на основную БД, пока реплики могут
+ * еще не содержать записанного. Клиент определяется по заголовку запроса или по адресу.
+ */
+public class ReadYourWritesTracker {
+
+    private final Cache<String, Boolean> recentWriters;
+    private final String clientIdHeader;
+
+    public ReadYourWritesTracker(Duration window, String clientIdHeader) {
+        this.recentWriters = Caffeine.newBuilder().expireAfterWrite(window).build();
+        this.clientIdHeader = clientIdHeader;
+    }
+
+    public void markWrite() {
+        String clientId = currentClientId();
+        if (clientId != null) {
+            recentWriters.put(clientId, Boolean.TRUE);
+        }
+    }
+
+    public boolean wroteRecently() {
+        String clientId = currentClientId();
+        return clientId != null && recentWriters.getIfPresent(clientId) != null;
+    }
+
+    private String currentClientId() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return null;
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        String clientId = request.getHeader(clientIdHeader);
+        return clientId != null && !clientId.isBlank() ? clientId : request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.auction.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Реплики для чтения. Основной пул по-прежнему настраивается через spring.datasource.
+ */
+@Data
+@ConfigurationProperties(prefix = "auction.datasource")
+public class ReplicaDataSourceProperties {
+
+    /**
+     * Направлять транзакции только для чтения на реплики.
+     */
+    private boolean replicaRouting = false;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * Реплика, отстающая больше этого времени, не используется до следующей проверки.
+     */
+    private Duration maxStaleness = Duration.ofSeconds(2);
+
+    private Duration lagCheckInterval = Duration.ofSeconds(1);
+
+    /**
+     * Запрос, возвращающий отставание реплики в миллисекундах. Пустой запрос отключает проверку.
+     */
+    private String lagQuery = """
+            SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+            ELSE coalesce(extract(epoch FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END""";
+
+    /**
+     * После записи клиент читает с основной БД в течение этого времени.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    /**
+     * Заголовок с идентификатором клиента; без него клиент определяется по адресу.
+     */
+    private String clientIdHeader = "X-Client-Id";
+
+    @Data
+    public static class Replica {
+
+        private String url;
+
+        /**
+         * По умолчанию как у основной БД.
+         */
+        private String username;
+
+        private String password;
+
+        /**
+         * По умолчанию spring.datasource.hikari.maximum-pool-size.
+         */
+        private Integer maximumPoolSize;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.auction.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разделение чтения и записи (auction.datasource.replica-routing=true).
+ * Методы сервиса с {@code @Transactional(readOnly = true)} читают с реплик, все остальное идет на основную БД.
+ * Пулы Hikari создаются здесь и регистрируют метрики сами, так как бином остается только маршрутизирующий DataSource.
+ * Пулы реплик настраиваются из spring.datasource.hikari, как основной; отличаются только адрес и учетные данные.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "auction.datasource", name = "replica-routing", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(ReplicaDataSourceProperties properties) {
+        return new ReadYourWritesTracker(properties.getReadYourWritesWindow(), properties.getClientIdHeader());
+    }
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties dataSourceProperties, ReplicaDataSourceProperties properties,
+                                 ReadYourWritesTracker readYourWritesTracker, Environment environment,
+                                 MeterRegistry meterRegistry) {
+        MicrometerMetricsTrackerFactory metricsTrackerFactory = new MicrometerMetricsTrackerFactory(meterRegistry);
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+        primary.setMetricsTrackerFactory(metricsTrackerFactory);
+        pools.add(primary);
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            ReplicaDataSourceProperties.Replica replicaProperties = properties.getReplicas().get(i);
+            HikariDataSource replica = new HikariDataSource();
+            // таймауты, размеры пула и свойства драйвера те же, что у основного пула
+            Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+            replica.setPoolName("replica-" + i);
+            if (primary.getDriverClassName() != null) {
+                replica.setDriverClassName(primary.getDriverClassName());
+            }
+            replica.setJdbcUrl(replicaProperties.getUrl());
+            replica.setUsername(replicaProperties.getUsername() != null ? replicaProperties.getUsername() : primary.getUsername());
+            replica.setPassword(replicaProperties.getPassword() != null ? replicaProperties.getPassword() : primary.getPassword());
+            if (replicaProperties.getMaximumPoolSize() != null) {
+                replica.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+            }
+            replica.setReadOnly(true);
+            replica.setMetricsTrackerFactory(metricsTrackerFactory);
+            pools.add(replica);
+            replicas.add(replica);
+        }
+        routingDataSource = new ReplicaRoutingDataSource(primary, replicas, readYourWritesTracker, properties);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @PreDestroy
+    public void closePools() {
+        if (routingDataSource != null) {
+            routingDataSource.shutdown();
+        }
+        pools.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.auction.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Выбирает пул соединений по текущей транзакции: транзакции только для чтения идут на реплику
+ * с допустимым отставанием, остальные - на основную БД. Работает только за
+ * LazyConnectionDataSourceProxy, который берет соединение после того, как известен признак readOnly.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final String PRIMARY = "primary";
+
+    private final List<Replica> replicas;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final long maxStalenessMillis;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService lagMonitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-lag-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicaDataSources,
+                                    ReadYourWritesTracker readYourWritesTracker, ReplicaDataSourceProperties properties) {
+        this.replicas = replicaDataSources.stream().map(Replica::new).toList();
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.maxStalenessMillis = properties.getMaxStaleness().toMillis();
+        this.lagQuery = properties.getLagQuery();
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i).dataSource);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        if (lagQuery == null || lagQuery.isBlank()) {
+            // без проверки отставания реплики считаются пригодными всегда
+            replicas.forEach(replica -> replica.usable = true);
+        } else {
+            long intervalMillis = properties.getLagCheckInterval().toMillis();
+            lagMonitor.scheduleWithFixedDelay(this::checkLag, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            readYourWritesTracker.markWrite();
+            return PRIMARY;
+        }
+        if (replicas.isEmpty() || readYourWritesTracker.wroteRecently()) {
+            return PRIMARY;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            int index = (start + i) % replicas.size();
+            if (replicas.get(index).usable) {
+                return index;
+            }
+        }
+        return PRIMARY;
+    }
+
+    private void checkLag() {
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(i);
+            boolean usable;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                long lagMillis = resultSet.next() ? resultSet.getLong(1) : Long.MAX_VALUE;
+                usable = lagMillis <= maxStalenessMillis;
+                if (!usable && replica.usable) {
+                    logger.warn("Реплика {} отстает на {} мс, чтение переключено на основную БД", i, lagMillis);
+                }
+            } catch (Exception e) {
+                usable = false;
+                if (replica.usable) {
+                    logger.error("Реплика {} недоступна: {}", i, e.getMessage());
+                }
+            }
+            replica.usable = usable;
+        }
+    }
+
+    public void shutdown() {
+        lagMonitor.shutdownNow();
+    }
+
+    private static final class Replica {
+        private final DataSource dataSource;
+        private volatile boolean usable;
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
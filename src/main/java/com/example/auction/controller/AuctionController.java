@@ -1,97 +1,177 @@
 package com.example.auction.controller;
 
+import com.example.auction.cache.LotResponseCache;
 import com.example.auction.dto.*;
+import com.example.auction.enums.AuctionFailure;
+import com.example.auction.enums.BidAcceptance;
+import com.example.auction.enums.LotImportFormat;
 import com.example.auction.enums.LotStatus;
+import com.example.auction.enums.LotView;
+import com.example.auction.push.LotUpdateBroadcaster;
 import com.example.auction.service.AuctionService;
+import com.example.auction.utilities.LotValidator;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongFunction;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/lot")
 public class AuctionController {
 
     private final AuctionService auctionService;
+    private final LotUpdateBroadcaster lotUpdateBroadcaster;
+    private final LotResponseCache lotResponseCache;
+    private final int maxBatchSize;
 
-    public AuctionController(AuctionService auctionService) {
+    public AuctionController(AuctionService auctionService, LotUpdateBroadcaster lotUpdateBroadcaster,
+                             LotResponseCache lotResponseCache, @Value("${auction.batch.max-size:10000}") int maxBatchSize) {
         this.auctionService = auctionService;
+        this.lotUpdateBroadcaster = lotUpdateBroadcaster;
+        this.lotResponseCache = lotResponseCache;
+        this.maxBatchSize = maxBatchSize;
     }
 
     @GetMapping("/{id}/first")
     @Operation(summary = "Получить информацию о первом ставившем на лот", description = "Возвращает первого ставившего на этот лот")
-    public ResponseEntity<String> getFirstBidder(@PathVariable("id") int lotId) {
-        ResponseEntity<String> response;
-        String result = auctionService.getFirstBidder(lotId);
-        response = switch (result) {
-            case "Лот не найден", "Заявок по этому лоту нет" -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(result);
-            case "Лот в неверном статусе" -> ResponseEntity.status(HttpStatus.BAD_REQUEST).body(result);
-            default -> ResponseEntity.status(HttpStatus.OK).body(result);
-        };
-        return response;
+    public ResponseEntity<?> getFirstBidder(@PathVariable("id") int lotId) {
+        return lotView(lotId, LotView.FIRST_BIDDER, version -> auctionService.getFirstBidder(lotId, version));
     }
 
     @GetMapping("/{id}/frequent")
     @Operation(summary = "Возвращает имя ставившего на данный лот наибольшее количество раз", description = "Наибольшее количество вычисляется из общего количества ставок на лот")
-    public ResponseEntity<String> getMostFrequentBidder(@PathVariable("id") int lotId) {
-        ResponseEntity<String> response;
-        String result = auctionService.getMostFrequentBidder(lotId);
-        response = switch (result) {
-            case "Лот не найден", "Заявок по этому лоту нет", "Не удалось определить наиболее активного участника" -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(result);
-            default -> ResponseEntity.status(HttpStatus.OK).body(result);
-        };
-        return response;
+    public ResponseEntity<?> getMostFrequentBidder(@PathVariable("id") int lotId) {
+        return lotView(lotId, LotView.MOST_FREQUENT_BIDDER, version -> auctionService.getMostFrequentBidder(lotId, version));
+    }
+
+    @GetMapping("/{id}/top")
+    @Operation(summary = "Возвращает участников, ставивших на лот наибольшее количество раз", description = """
+            Возвращает до limit участников в порядке убывания количества ставок
+            с временем последней ставки каждого""")
+    public ResponseEntity<?> getTopBidders(@PathVariable("id") int lotId,
+                                           @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        Optional<List<BidderStats>> topBidders = auctionService.getTopBidders(lotId, limit);
+        return topBidders.<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> new ResponseEntity<>("Лот не найден", HttpStatus.NOT_FOUND));
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Получить полную информацию о лоте", description = "Возвращает полную информацию о лоте с последним ставившим и текущей ценой")
     public ResponseEntity<?> getFullLotById(@PathVariable("id") int lotId) {
+        return lotView(lotId, LotView.FULL, null);
+    }
+
+    @GetMapping(value = "/{id}/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Подписаться на изменения лота", description = """
+            Открывает поток Server-Sent Events с событиями "lot": статус, текущая цена и последняя ставка.
+            Первое событие содержит текущее состояние, далее изменения приходят не чаще одного раза за окно объединения""")
+    public ResponseEntity<?> subscribe(@PathVariable("id") int lotId) {
         FullLotDTO fullLotDTO = auctionService.getFullLotById(lotId);
-        return fullLotDTO.getId() != 0 ? ResponseEntity.ok(fullLotDTO) : new ResponseEntity<>("Лот не найден", HttpStatus.NOT_FOUND);
+        if (fullLotDTO.getId() == 0) {
+            return new ResponseEntity<>("Лот не найден", HttpStatus.NOT_FOUND);
+        }
+        return ResponseEntity.ok(lotUpdateBroadcaster.subscribe(lotId, fullLotDTO));
     }
 
     @PostMapping("/{id}/start")
     @Operation(summary = "Начать торги по лоту", description = """
             Переводит лот в состояние "начато", которое позволяет делать ставки на лот.
-            Если лот уже находится в состоянии "начато", то ничего не делает и возвращает 200""")
+            Если лот уже находится в состоянии "начато", то ничего не делает и возвращает 200.
+            Ответ 409 означает, что лот все время менялся параллельно и статус не изменен""")
     public ResponseEntity<String> startLot(@PathVariable("id") int lotId) {
-        boolean started = auctionService.startLot(lotId);
-        return started ? ResponseEntity.ok().build() : new ResponseEntity<>("Лот не найден", HttpStatus.NOT_FOUND);
+        AuctionResult<LotStatus> result = auctionService.startLot(lotId);
+        return result instanceof AuctionResult.Failure<LotStatus> failure ? failureResponse(failure.failure()) : ResponseEntity.ok().build();
     }
 
     @PostMapping("/bid")
     @Operation(summary = "Сделать ставку по лоту", description = """
             Создает новую ставку по лоту.
-            Если лот в статусе CREATED или STOPPED, то должна вернутся ошибка""")
+            Если лот в статусе CREATED или STOPPED, то должна вернутся ошибка.
+            Ответ 202 означает, что ставка принята и будет записана, но запись еще не подтверждена:
+            повторять такую ставку не нужно""")
     public ResponseEntity<String> createBid(@RequestParam("Id") int lotId, @RequestBody CreationBidDTO creationBidDTO) {
-        ResponseEntity<String> response;
-        String result = auctionService.createBid(lotId, creationBidDTO);
-        response = switch (result) {
-            case "Лот не найден" -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(result);
-            case "Лот в неверном статусе" -> ResponseEntity.status(HttpStatus.BAD_REQUEST).body(result);
-            default -> ResponseEntity.status(HttpStatus.OK).body(result + " для " + creationBidDTO.getBidderName());
-        };
-        return response;
+        AuctionResult<BidAcceptance> result = auctionService.createBid(lotId, creationBidDTO);
+        if (result instanceof AuctionResult.Failure<BidAcceptance> failure) {
+            return failureResponse(failure.failure());
+        }
+        if (((AuctionResult.Success<BidAcceptance>) result).value() == BidAcceptance.PENDING) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body("Ставка принята для " + creationBidDTO.getBidderName() + ", запись еще не подтверждена");
+        }
+        return ResponseEntity.ok("Ставка создана для " + creationBidDTO.getBidderName());
+    }
+
+    @PostMapping("/bid/batch")
+    @Operation(summary = "Сделать пакет ставок", description = """
+            Создает ставки по нескольким лотам за один запрос.
+            Каждая ставка проверяется отдельно, для каждой ставки возвращается отдельный результат.
+            Ставки записываются частями, каждая часть в своей транзакции""")
+    public ResponseEntity<?> createBids(@RequestBody List<BatchBidEntryDTO> entries) {
+        if (entries.size() > maxBatchSize) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Слишком много ставок в пакете, максимум " + maxBatchSize);
+        }
+        if (entries.isEmpty()) {
+            return ResponseEntity.ok(List.of());
+        }
+        List<AuctionResult<BidAcceptance>> results = auctionService.createBids(entries);
+        List<BatchBidResultDTO> batchResults = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            batchResults.add(batchResult(entries.get(i), results.get(i)));
+        }
+        return ResponseEntity.ok(batchResults);
+    }
+
+    private static BatchBidResultDTO batchResult(BatchBidEntryDTO entry, AuctionResult<BidAcceptance> result) {
+        BatchBidResultDTO batchResult = new BatchBidResultDTO();
+        if (entry != null) {
+            batchResult.setLotId(entry.getLotId());
+            batchResult.setBidderName(entry.getBidderName());
+        }
+        if (result instanceof AuctionResult.Failure<BidAcceptance> failure) {
+            batchResult.setResult(failure.failure().getMessage());
+        } else if (((AuctionResult.Success<BidAcceptance>) result).value() == BidAcceptance.PENDING) {
+            batchResult.setResult("Ставка принята, запись еще не подтверждена");
+        } else {
+            batchResult.setResult("Ставка создана");
+        }
+        return batchResult;
     }
 
     @PostMapping("/{id}/stop")
     @Operation(summary = "Остановить торги по лоту", description = """
             Переводит лот в состояние "остановлен", которое запрещает делать ставки на лот.
-            Если лот уже находится в состоянии "остановлен", то ничего не делает и возвращает 200""")
+            Если лот уже находится в состоянии "остановлен", то ничего не делает и возвращает 200.
+            Ответ 409 означает, что лот все время менялся параллельно и статус не изменен""")
     public ResponseEntity<String> stopLot(@PathVariable("id") int lotId) {
-        boolean stopped = auctionService.stopLot(lotId);
-        return stopped ? ResponseEntity.ok().build() : new ResponseEntity<>("Лот не найден", HttpStatus.NOT_FOUND);
+        AuctionResult<LotStatus> result = auctionService.stopLot(lotId);
+        return result instanceof AuctionResult.Failure<LotStatus> failure ? failureResponse(failure.failure()) : ResponseEntity.ok().build();
     }
 
     @PostMapping
     @Operation(summary = "Создает новый лот", description = """
             Метод создания нового лота,
             если есть ошибки в полях объекта лота - то нужно вернуть статус с ошибкой""")
-    public ResponseEntity<LotDto> createLot(@RequestBody CreationLotDTO creationLotDTO) {
+    public ResponseEntity<?> createLot(@RequestBody CreationLotDTO creationLotDTO) {
+        String error = LotValidator.validate(creationLotDTO);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(error);
+        }
         LotDto lotDto = auctionService.createLot(creationLotDTO);
         return ResponseEntity.ok(lotDto);
     }
@@ -114,25 +194,104 @@ public class AuctionController {
     }
 
 
+    @GetMapping("/cursor")
+    @Operation(summary = "Получить лоты по статусу постранично по курсору", description = """
+        Возвращает лоты с id больше значения after в порядке возрастания id.
+        Для следующей страницы передайте nextCursor из ответа в параметр after.
+        Общее количество лотов считается только при total=true.""")
+    @ApiResponse(responseCode = "204", description = "Нет данных для отображения")
+    public ResponseEntity<?> findLotsAfter(@RequestParam(value = "status", defaultValue = "CREATED") LotStatus status,
+                                           @RequestParam(value = "after", defaultValue = "0") int afterId,
+                                           @RequestParam(value = "size", defaultValue = "10") int size,
+                                           @RequestParam(value = "total", defaultValue = "false") boolean withTotal) {
+        LotCursorPageDTO lots = auctionService.findLotsByStatusAfter(status, afterId, size, withTotal);
+        if (lots.getContent().isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(lots);
+    }
+
     @GetMapping(value = "/export", produces = "application/csv")
     @Operation(summary = "Экспортировать все лоты в файл CSV", description = """
         Экспортировать все лоты в формате
         id, title, status, lastBidder, currentPrice
-        в одном файле CSV""")
+        в одном файле CSV.
+        Файл передается потоком; с параметром gzip=true ответ сжимается (Content-Encoding: gzip)""")
     @ApiResponse(responseCode = "204", description = "Нет данных для экспорта")
-    public ResponseEntity<?> exportLotsToCSV() {
-        byte[] csvData = auctionService.exportLotsToCSV();
-        if (csvData.length == 0) {
+    public ResponseEntity<StreamingResponseBody> exportLotsToCSV(@RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        if (!auctionService.hasLotsToExport()) {
             return ResponseEntity.noContent().build();
         }
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType("application/csv"));
         headers.setContentDispositionFormData("attachment", "lots.csv");
-        headers.setContentLength(csvData.length);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        StreamingResponseBody body = outputStream -> {
+            if (gzip) {
+                GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, 8192);
+                auctionService.exportLotsToCSV(gzipOutputStream);
+                gzipOutputStream.finish();
+            } else {
+                auctionService.exportLotsToCSV(outputStream);
+            }
+        };
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(csvData);
+                .body(body);
     }
 
-}
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/csv", "application/x-ndjson"})
+    @Operation(summary = "Импортировать лоты из CSV или NDJSON", description = """
+        Загружает лоты в статусе CREATED из тела запроса.
+        CSV (text/csv) содержит заголовок со столбцами title, description, startPrice, bidPrice
+        и необязательными openAt, closeAt; NDJSON (application/x-ndjson) - по одному объекту создания лота в строке.
+        Тело читается потоком, в том числе сжатое (Content-Encoding: gzip).
+        Некорректные строки пропускаются, в ответе возвращаются их номера и причины""")
+    public ResponseEntity<LotImportResultDTO> importLots(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                         @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+                                                         InputStream body) throws IOException {
+        InputStream inputStream = "gzip".equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(body, 8192) : body;
+        LotImportFormat format = LotImportFormat.of(MediaType.parseMediaType(contentType));
+        return ResponseEntity.ok(auctionService.importLots(inputStream, format));
+    }
+
+    /**
+     * Ответ по лоту с ETag по версии лота. Если ETag совпадает с If-None-Match, Spring MVC отвечает 304 без тела.
+     * Версия читается до данных представления, поэтому ETag не может оказаться новее тела ответа.
+     * Представление строится не по данным старше этой версии: она передается в {@code loader}.
+     */
+    private ResponseEntity<?> lotView(int lotId, LotView view, LongFunction<AuctionResult<?>> loader) {
+        LotResponseCache.CachedResponse cached = lotResponseCache.get(lotId, view);
+        if (cached == null) {
+            long stamp = lotResponseCache.stamp(lotId);
+            FullLotDTO fullLotDTO = auctionService.getFullLotById(lotId);
+            if (fullLotDTO.getId() == 0) {
+                return failureResponse(AuctionFailure.LOT_NOT_FOUND);
+            }
+            AuctionResult<?> result = loader == null ? AuctionResult.success(fullLotDTO) : loader.apply(fullLotDTO.getVersion());
+            if (result instanceof AuctionResult.Failure<?> failure) {
+                return failureResponse(failure.failure());
+            }
+            Object value = ((AuctionResult.Success<?>) result).value();
+            cached = lotResponseCache.put(lotId, view, fullLotDTO.getVersion(), value, stamp);
+        }
+        return ResponseEntity.ok()
+                .eTag(cached.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(cached.body());
+    }
 
+    private static ResponseEntity<String> failureResponse(AuctionFailure failure) {
+        HttpStatus status = switch (failure) {
+            case WRONG_STATUS, INVALID_BIDDER_NAME -> HttpStatus.BAD_REQUEST;
+            case INGEST_OVERLOADED -> HttpStatus.SERVICE_UNAVAILABLE;
+            case CONFLICT -> HttpStatus.CONFLICT;
+            default -> HttpStatus.NOT_FOUND;
+        };
+        return ResponseEntity.status(status).body(failure.getMessage());
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.example.auction.controller;
+
+import com.example.auction.dto.CacheStatsDTO;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+@RestController
+@RequestMapping("/cache")
+public class CacheController {
+
+    private final CacheManager cacheManager;
+
+    public CacheController(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Статистика кэшей", description = "Возвращает размер, количество попаданий, промахов и вытеснений для каждого кэша")
+    public ResponseEntity<Map<String, CacheStatsDTO>> getCacheStats() {
+        Map<String, CacheStatsDTO> result = new TreeMap<>();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+                CacheStats stats = nativeCache.stats();
+                CacheStatsDTO cacheStatsDTO = new CacheStatsDTO();
+                cacheStatsDTO.setSize(nativeCache.estimatedSize());
+                cacheStatsDTO.setHitCount(stats.hitCount());
+                cacheStatsDTO.setMissCount(stats.missCount());
+                cacheStatsDTO.setHitRate(stats.hitRate());
+                cacheStatsDTO.setEvictionCount(stats.evictionCount());
+                result.put(cacheName, cacheStatsDTO);
+            }
+        }
+        return ResponseEntity.ok(result);
+    }
+}
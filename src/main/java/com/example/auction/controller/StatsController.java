@@ -0,0 +1,35 @@
+package com.example.auction.controller;
+
+import com.example.auction.dto.AuctionStatsDTO;
+import com.example.auction.stats.AuctionStatsCollector;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/stats")
+public class StatsController {
+
+    private final AuctionStatsCollector auctionStatsCollector;
+
+    public StatsController(AuctionStatsCollector auctionStatsCollector) {
+        this.auctionStatsCollector = auctionStatsCollector;
+    }
+
+    @GetMapping
+    @Operation(summary = "Сводная статистика аукциона", description = """
+            Возвращает количество лотов и сумму текущих цен по статусам, самых активных участников
+            и количество ставок по минутам. Статистика обновляется периодически, время обновления в поле refreshedAt""")
+    @ApiResponse(responseCode = "503", description = "Статистика еще не собрана")
+    public ResponseEntity<?> getStats() {
+        AuctionStatsDTO stats = auctionStatsCollector.snapshot();
+        if (stats == null) {
+            return new ResponseEntity<>("Статистика еще не собрана", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return ResponseEntity.ok(stats);
+    }
+}
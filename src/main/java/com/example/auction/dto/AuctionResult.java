@@ -0,0 +1,23 @@
+package com.example.auction.dto;
+
+import com.example.auction.enums.AuctionFailure;
+
+/**
+ * Результат операции сервиса: значение либо причина отказа.
+ */
+public sealed interface AuctionResult<T> {
+
+    static <T> AuctionResult<T> success(T value) {
+        return new Success<>(value);
+    }
+
+    static <T> AuctionResult<T> failure(AuctionFailure failure) {
+        return new Failure<>(failure);
+    }
+
+    record Success<T>(T value) implements AuctionResult<T> {
+    }
+
+    record Failure<T>(AuctionFailure failure) implements AuctionResult<T> {
+    }
+}
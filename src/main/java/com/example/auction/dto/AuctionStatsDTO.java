@@ -0,0 +1,34 @@
+package com.example.auction.dto;
+
+import com.example.auction.enums.LotStatus;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+public class AuctionStatsDTO implements Serializable {
+
+    private Map<LotStatus, Long> lotCounts;
+
+    /**
+     * Сумма текущих цен лотов по статусам.
+     */
+    private Map<LotStatus, Long> turnover;
+
+    private long totalTurnover;
+
+    /**
+     * Участники с наибольшим количеством ставок по всем лотам.
+     */
+    private List<BidderStats> topBidders;
+
+    private List<BidMinuteCount> bidsPerMinute;
+
+    private Timestamp refreshedAt;
+
+}
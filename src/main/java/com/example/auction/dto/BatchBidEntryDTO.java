@@ -0,0 +1,16 @@
+package com.example.auction.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+public class BatchBidEntryDTO implements Serializable {
+
+    private int lotId;
+
+    private String bidderName;
+
+}
@@ -0,0 +1,18 @@
+package com.example.auction.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+public class BatchBidResultDTO implements Serializable {
+
+    private int lotId;
+
+    private String bidderName;
+
+    private String result;
+
+}
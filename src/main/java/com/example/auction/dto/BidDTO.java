@@ -14,12 +14,4 @@ public class BidDTO implements Serializable {
 
     private Timestamp bidTime;
 
-    @Override
-    public String toString() {
-        return "{\n" +
-                "  \"bidderName\": \"" + bidderName + "\",\n" +
-                "  \"bidDate\": \"" + bidTime + "\"\n" +
-                "}";
-    }
-
 }
@@ -0,0 +1,9 @@
+package com.example.auction.dto;
+
+import java.sql.Timestamp;
+
+/**
+ * Количество ставок за минуту, начинающуюся в {@code minute}.
+ */
+public record BidMinuteCount(Timestamp minute, long bidCount) {
+}
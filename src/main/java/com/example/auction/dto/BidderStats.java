@@ -0,0 +1,9 @@
+package com.example.auction.dto;
+
+import java.sql.Timestamp;
+
+/**
+ * Количество ставок участника по лоту и время его последней ставки.
+ */
+public record BidderStats(String bidderName, long bidCount, Timestamp lastBidTime) {
+}
@@ -4,6 +4,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.io.Serializable;
+import java.sql.Timestamp;
 
 @Data
 @NoArgsConstructor
@@ -17,4 +18,14 @@ public class CreationLotDTO implements Serializable {
 
     private int bidPrice;
 
+    /**
+     * Время автоматического открытия торгов, необязательно.
+     */
+    private Timestamp openAt;
+
+    /**
+     * Время автоматического закрытия торгов, необязательно.
+     */
+    private Timestamp closeAt;
+
 }
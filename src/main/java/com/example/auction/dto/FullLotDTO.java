@@ -1,10 +1,12 @@
 package com.example.auction.dto;
 
 import com.example.auction.enums.LotStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.io.Serializable;
+import java.sql.Timestamp;
 
 @Data
 @NoArgsConstructor
@@ -24,4 +26,14 @@ public class FullLotDTO implements Serializable {
     private int currentPrice;
 
     private BidDTO lastBid;
+
+    private Timestamp openAt;
+
+    private Timestamp closeAt;
+
+    /**
+     * Версия лота, из которой строится ETag ответа.
+     */
+    @JsonIgnore
+    private long version;
 }
@@ -0,0 +1,9 @@
+package com.example.auction.dto;
+
+import com.example.auction.enums.LotStatus;
+
+/**
+ * Строка экспорта лотов в CSV; последний ставивший и текущая цена берутся из агрегатов лота.
+ */
+public record LotCsvRow(int id, String title, LotStatus status, String lastBidder, int currentPrice) {
+}
@@ -0,0 +1,27 @@
+package com.example.auction.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class LotCursorPageDTO implements Serializable {
+
+    private List<LotDto> content;
+
+    private int size;
+
+    /**
+     * Значение параметра after для следующей страницы, null если страница последняя.
+     */
+    private Integer nextCursor;
+
+    /**
+     * Общее количество лотов в статусе, заполняется только по запросу.
+     */
+    private Long totalElements;
+
+}
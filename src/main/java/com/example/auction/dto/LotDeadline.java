@@ -0,0 +1,6 @@
+package com.example.auction.dto;
+
+import java.sql.Timestamp;
+
+public record LotDeadline(int lotId, Timestamp at) {
+}
@@ -0,0 +1,19 @@
+package com.example.auction.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+public class LotImportErrorDTO implements Serializable {
+
+    /**
+     * Номер строки во входном файле, считая строку заголовка CSV.
+     */
+    private long line;
+
+    private String message;
+
+}
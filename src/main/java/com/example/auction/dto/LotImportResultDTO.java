@@ -0,0 +1,25 @@
+package com.example.auction.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class LotImportResultDTO implements Serializable {
+
+    private long imported;
+
+    private long rejected;
+
+    private List<LotImportErrorDTO> errors = new ArrayList<>();
+
+    /**
+     * Ошибок было больше, чем возвращено в errors.
+     */
+    private boolean errorsTruncated;
+
+}
@@ -0,0 +1,9 @@
+package com.example.auction.dto;
+
+import com.example.auction.enums.LotStatus;
+
+/**
+ * Количество лотов в статусе и сумма их текущих цен.
+ */
+public record LotStatusStats(LotStatus status, long lotCount, long turnover) {
+}
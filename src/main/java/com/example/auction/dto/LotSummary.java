@@ -0,0 +1,9 @@
+package com.example.auction.dto;
+
+import com.example.auction.enums.LotStatus;
+
+/**
+ * Проекция лота только с полями {@link LotDto}, без агрегатов и ставок.
+ */
+public record LotSummary(int id, LotStatus status, String title, String description, int startPrice, int bidPrice) {
+}
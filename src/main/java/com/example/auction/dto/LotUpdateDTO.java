@@ -0,0 +1,21 @@
+package com.example.auction.dto;
+
+import com.example.auction.enums.LotStatus;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+public class LotUpdateDTO implements Serializable {
+
+    private int id;
+
+    private LotStatus status;
+
+    private int currentPrice;
+
+    private BidDTO lastBid;
+
+}
@@ -0,0 +1,7 @@
+package com.example.auction.dto;
+
+/**
+ * Версия строки лота для проверки данных, сохраненных вне БД.
+ */
+public record LotVersion(int id, long version) {
+}
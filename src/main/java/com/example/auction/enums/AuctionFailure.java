@@ -0,0 +1,24 @@
+package com.example.auction.enums;
+
+/**
+ * Причины, по которым операция с лотом не выполнена, с текстом для ответа клиенту.
+ */
+public enum AuctionFailure {
+    LOT_NOT_FOUND("Лот не найден"),
+    WRONG_STATUS("Лот в неверном статусе"),
+    INVALID_BIDDER_NAME("Имя участника не задано или длиннее 255 символов"),
+    INGEST_OVERLOADED("Прием ставок перегружен, повторите ставку позже"),
+    CONFLICT("Лот одновременно изменяется другим запросом, повторите операцию позже"),
+    NO_BIDS("Заявок по этому лоту нет"),
+    NO_SINGLE_LEADER("Не удалось определить наиболее активного участника");
+
+    private final String message;
+
+    AuctionFailure(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
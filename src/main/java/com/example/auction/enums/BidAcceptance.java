@@ -0,0 +1,11 @@
+package com.example.auction.enums;
+
+/**
+ * Состояние принятой ставки на момент ответа клиенту.
+ * PENDING - ставка уже принята (в очереди или журнале) и будет записана, но подтверждение
+ * не дождалось записи; повторять такую ставку нельзя, иначе она будет записана дважды.
+ */
+public enum BidAcceptance {
+    CONFIRMED,
+    PENDING
+}
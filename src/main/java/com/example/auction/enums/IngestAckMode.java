@@ -0,0 +1,7 @@
+package com.example.auction.enums;
+
+public enum IngestAckMode {
+    ENQUEUE,
+    FLUSH,
+    JOURNAL
+}
@@ -0,0 +1,31 @@
+package com.example.auction.enums;
+
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * Форматы массового импорта лотов и соответствующие им типы содержимого.
+ */
+public enum LotImportFormat {
+
+    CSV("text/csv", "application/csv"),
+    NDJSON("application/x-ndjson");
+
+    private final List<MediaType> mediaTypes;
+
+    LotImportFormat(String... mediaTypes) {
+        this.mediaTypes = MediaType.parseMediaTypes(List.of(mediaTypes));
+    }
+
+    public static LotImportFormat of(MediaType contentType) {
+        for (LotImportFormat format : values()) {
+            for (MediaType mediaType : format.mediaTypes) {
+                if (mediaType.equalsTypeAndSubtype(contentType)) {
+                    return format;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Неподдерживаемый формат импорта: " + contentType);
+    }
+}
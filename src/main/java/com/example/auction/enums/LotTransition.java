@@ -0,0 +1,25 @@
+package com.example.auction.enums;
+
+/**
+ * Смена статуса лота по расписанию.
+ */
+public enum LotTransition {
+    OPEN(LotStatus.CREATED, LotStatus.STARTED),
+    CLOSE(LotStatus.STARTED, LotStatus.STOPPED);
+
+    private final LotStatus from;
+    private final LotStatus to;
+
+    LotTransition(LotStatus from, LotStatus to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public LotStatus from() {
+        return from;
+    }
+
+    public LotStatus to() {
+        return to;
+    }
+}
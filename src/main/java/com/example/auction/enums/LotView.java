@@ -0,0 +1,10 @@
+package com.example.auction.enums;
+
+/**
+ * Представления лота, ответы на которые кэшируются в сериализованном виде.
+ */
+public enum LotView {
+    FULL,
+    FIRST_BIDDER,
+    MOST_FREQUENT_BIDDER
+}
@@ -0,0 +1,28 @@
+package com.example.auction.event;
+
+import java.sql.Timestamp;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Публикуется после записи одной ставки или пакета ставок.
+ * Слушатели, которым важен только факт изменения лота, обрабатывают каждый лот один раз.
+ */
+public record BidsPlacedEvent(List<PlacedBid> bids) {
+
+    public record PlacedBid(int lotId, String bidderName, Timestamp bidTime) {
+    }
+
+    public static BidsPlacedEvent of(int lotId, String bidderName, Timestamp bidTime) {
+        return new BidsPlacedEvent(List.of(new PlacedBid(lotId, bidderName, bidTime)));
+    }
+
+    public Set<Integer> lotIds() {
+        Set<Integer> lotIds = new LinkedHashSet<>();
+        for (PlacedBid bid : bids) {
+            lotIds.add(bid.lotId());
+        }
+        return lotIds;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.auction.event;
+
+import com.example.auction.enums.LotStatus;
+
+/**
+ * Публикуется при создании лота ({@code from == null}) и при смене его статуса.
+ */
+public record LotStatusChangedEvent(int lotId, LotStatus from, LotStatus to) {
+}
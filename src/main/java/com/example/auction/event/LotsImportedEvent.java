@@ -0,0 +1,12 @@
+package com.example.auction.event;
+
+import java.util.List;
+
+/**
+ * Публикуется после загрузки части массового импорта вместо событий о создании каждого лота.
+ * Все загруженные лоты находятся в статусе CREATED.
+ *
+ * @param scheduledLotIds лоты с заданным временем открытия
+ */
+public record LotsImportedEvent(int count, List<Integer> scheduledLotIds) {
+}
@@ -0,0 +1,9 @@
+package com.example.auction.event;
+
+import java.util.Set;
+
+/**
+ * Публикуется, когда другой узел сообщил об изменении лотов. Локальные кэши к этому моменту уже очищены.
+ */
+public record RemoteLotsChangedEvent(Set<Integer> lotIds) {
+}
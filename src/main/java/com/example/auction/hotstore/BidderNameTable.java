@@ -0,0 +1,146 @@
+package com.example.auction.hotstore;
+
+import java.util.Arrays;
+
+/**
+ * Интернирование имен участников: имя получает номер, который хранится в записях лотов вместо
+ * ссылки на строку. На номер ссылаются пары (лот, участник) таблицы лотов; когда удаляется последняя
+ * пара с участником, имя освобождается, а его номер выдается следующему новому имени.
+ * Не потокобезопасна, синхронизацию обеспечивает {@link HotLotStore}.
+ */
+final class BidderNameTable {
+
+    private String[] names;
+    private int[] references;
+    private int[] slots;
+    private int size;
+    private int[] freeIds = new int[16];
+    private int freeCount;
+
+    BidderNameTable(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(16, initialCapacity) - 1) << 1;
+        names = new String[capacity / 2];
+        references = new int[capacity / 2];
+        slots = new int[capacity];
+    }
+
+    /**
+     * @return количество выданных номеров, включая освобожденные
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return имя или null, если номер освобожден
+     */
+    String name(int id) {
+        return names[id];
+    }
+
+    /**
+     * @return номер имени или -1, если имени нет в таблице
+     */
+    int find(String name) {
+        int[] table = slots;
+        int mask = table.length - 1;
+        for (int index = mix(name.hashCode()) & mask, probes = 0; probes < table.length; index = (index + 1) & mask, probes++) {
+            int slot = table[index];
+            if (slot == 0) {
+                return -1;
+            }
+            if (names[slot - 1].equals(name)) {
+                return slot - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Номер нового имени нужно сразу закрепить через {@link #retain}, иначе имя не будет освобождено.
+     */
+    int intern(String name) {
+        int id = find(name);
+        if (id >= 0) {
+            return id;
+        }
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+        } else {
+            if (size == names.length) {
+                grow();
+            }
+            id = size++;
+        }
+        names[id] = name;
+        insert(slots, id);
+        return id;
+    }
+
+    void retain(int id) {
+        references[id]++;
+    }
+
+    /**
+     * Освобождает имя, когда на него не остается ссылок.
+     */
+    void release(int id) {
+        if (--references[id] > 0) {
+            return;
+        }
+        removeSlot(id);
+        names[id] = null;
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = id;
+    }
+
+    private void grow() {
+        names = Arrays.copyOf(names, names.length * 2);
+        references = Arrays.copyOf(references, references.length * 2);
+        int[] table = new int[slots.length * 2];
+        for (int id = 0; id < size; id++) {
+            if (names[id] != null) {
+                insert(table, id);
+            }
+        }
+        slots = table;
+    }
+
+    private void insert(int[] table, int id) {
+        int mask = table.length - 1;
+        int index = mix(names[id].hashCode()) & mask;
+        while (table[index] != 0) {
+            index = (index + 1) & mask;
+        }
+        // 0 обозначает пустую ячейку, поэтому хранится номер + 1
+        table[index] = id + 1;
+    }
+
+    /**
+     * Удаляет ячейку со сдвигом следующих ячеек цепочки назад, чтобы поиск не требовал отметок удаления.
+     */
+    private void removeSlot(int id) {
+        int[] table = slots;
+        int mask = table.length - 1;
+        int hole = mix(names[id].hashCode()) & mask;
+        while (table[hole] != id + 1) {
+            hole = (hole + 1) & mask;
+        }
+        for (int index = (hole + 1) & mask; table[index] != 0; index = (index + 1) & mask) {
+            int home = mix(names[table[index] - 1].hashCode()) & mask;
+            // ячейку можно перенести в дыру, если ее начальная позиция не лежит между дырой и ней
+            if (((index - home) & mask) >= ((index - hole) & mask)) {
+                table[hole] = table[index];
+                hole = index;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    static int mix(int hash) {
+        int mixed = hash * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+}
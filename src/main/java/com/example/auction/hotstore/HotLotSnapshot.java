@@ -0,0 +1,168 @@
+package com.example.auction.hotstore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Файл снимка сегментов {@link HotLotStore}, отображаемый в память.
+ * <pre>
+ * заголовок: magic, число разделов (int)
+ * раздел - одна {@link HotLotTable}:
+ *   число имен, число лотов (int)
+ *   имена:   длина в байтах (int), UTF-8; у освобожденного номера длина 0
+ *   лоты:    запись лота как в таблице, в поле PAIR_HEAD - число пар лота;
+ *            за ней пары: номер участника (int), количество ставок (int), время последней ставки (long)
+ * </pre>
+ * Номера участников в записях и парах - номера имен своего раздела.
+ */
+final class HotLotSnapshot {
+
+    static final int PAIR_SIZE = 16;
+
+    private static final int MAGIC = 0x484C5332;
+    private static final int HEADER_SIZE = 8;
+    private static final int SECTION_HEADER_SIZE = 8;
+
+    private final MappedByteBuffer buffer;
+    private final List<Section> sections;
+
+    /**
+     * @param names          имена участников раздела по номерам
+     * @param firstLotOffset смещение первого лота раздела в файле
+     */
+    record Section(String[] names, int lotCount, int firstLotOffset) {
+    }
+
+    private HotLotSnapshot(MappedByteBuffer buffer, List<Section> sections) {
+        this.buffer = buffer;
+        this.sections = sections;
+    }
+
+    /**
+     * Копирует таблицу в раздел снимка. Буфер {@code staging} используется повторно, если в него
+     * помещается снимок, иначе выделяется новый.
+     *
+     * @return буфер, подготовленный к чтению раздела
+     */
+    static ByteBuffer encode(HotLotTable table, ByteBuffer staging) throws IOException {
+        int nameCount = table.names.size();
+        byte[][] encodedNames = new byte[nameCount][];
+        long size = SECTION_HEADER_SIZE + (long) table.lotCount() * HotLotTable.RECORD_SIZE + (long) table.pairCount() * PAIR_SIZE;
+        for (int id = 0; id < nameCount; id++) {
+            String name = table.names.name(id);
+            encodedNames[id] = name == null ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+            size += Integer.BYTES + encodedNames[id].length;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Снимок больше 2 ГБ: " + size + " байт");
+        }
+        ByteBuffer buffer = staging.capacity() >= size ? staging.clear() : ByteBuffer.allocate((int) size);
+        buffer.putInt(nameCount).putInt(table.lotCount());
+        for (byte[] name : encodedNames) {
+            buffer.putInt(name.length).put(name);
+        }
+        table.forEachRecord(record -> {
+            int start = buffer.position();
+            table.copyRecord(record, buffer);
+            int pairs = 0;
+            for (int pair = table.getInt(record, HotLotTable.PAIR_HEAD); pair != HotLotTable.NONE; pair = table.nextPair(pair)) {
+                buffer.putInt(table.pairBidder(pair)).putInt(table.pairCount(pair)).putLong(table.pairTime(pair));
+                pairs++;
+            }
+            buffer.putInt(start + HotLotTable.PAIR_HEAD, pairs);
+        });
+        return buffer.flip();
+    }
+
+    /**
+     * Записывает разделы, подготовленные {@link #encode}, во временный файл и атомарно заменяет им предыдущий снимок.
+     */
+    static void write(List<ByteBuffer> sections, Path file) throws IOException {
+        long size = HEADER_SIZE;
+        for (ByteBuffer section : sections) {
+            size += section.remaining();
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Снимок больше 2 ГБ: " + size + " байт");
+        }
+        ByteBuffer[] buffers = new ByteBuffer[sections.size() + 1];
+        buffers[0] = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(sections.size()).flip();
+        for (int i = 0; i < sections.size(); i++) {
+            buffers[i + 1] = sections.get(i);
+        }
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            while (buffers[buffers.length - 1].hasRemaining()) {
+                channel.write(buffers);
+            }
+            channel.force(false);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static HotLotSnapshot open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Файл " + file + " не является снимком лотов");
+        }
+        HotLotSnapshot snapshot = new HotLotSnapshot(buffer, new ArrayList<>(buffer.getInt(4)));
+        int offset = HEADER_SIZE;
+        for (int section = buffer.getInt(4); section > 0; section--) {
+            String[] names = new String[buffer.getInt(offset)];
+            int lotCount = buffer.getInt(offset + 4);
+            offset += SECTION_HEADER_SIZE;
+            for (int id = 0; id < names.length; id++) {
+                int length = buffer.getInt(offset);
+                byte[] name = new byte[length];
+                buffer.get(offset + Integer.BYTES, name);
+                names[id] = new String(name, StandardCharsets.UTF_8);
+                offset += Integer.BYTES + length;
+            }
+            snapshot.sections.add(new Section(names, lotCount, offset));
+            for (int lot = 0; lot < lotCount; lot++) {
+                offset = snapshot.nextLotOffset(offset);
+            }
+        }
+        return snapshot;
+    }
+
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    List<Section> sections() {
+        return sections;
+    }
+
+    int lotId(int offset) {
+        return buffer.getInt(offset + HotLotTable.LOT_ID);
+    }
+
+    long version(int offset) {
+        return buffer.getLong(offset + HotLotTable.VERSION);
+    }
+
+    int pairCount(int offset) {
+        return buffer.getInt(offset + HotLotTable.PAIR_HEAD);
+    }
+
+    int nextLotOffset(int offset) {
+        return offset + HotLotTable.RECORD_SIZE + pairCount(offset) * PAIR_SIZE;
+    }
+}
@@ -0,0 +1,672 @@
+package com.example.auction.hotstore;
+
+import com.example.auction.config.HotLotStoreProperties;
+import com.example.auction.dto.AuctionResult;
+import com.example.auction.dto.BidDTO;
+import com.example.auction.dto.BidderStats;
+import com.example.auction.dto.LotVersion;
+import com.example.auction.enums.AuctionFailure;
+import com.example.auction.enums.LotStatus;
+import com.example.auction.event.BidsPlacedEvent;
+import com.example.auction.event.LotStatusChangedEvent;
+import com.example.auction.event.RemoteLotsChangedEvent;
+import com.example.auction.model.Lot;
+import com.example.auction.repository.LotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * Состояние лотов в статусе STARTED вне кучи: количество ставок, текущая цена, первый и последний
+ * ставившие и лидер по количеству ставок. Лот загружается из БД при первом чтении, затем ставки
+ * применяются после фиксации транзакций, которые их записали; смена статуса и изменения на других
+ * узлах удаляют лот из хранилища.
+ * <p>
+ * Таблица разбита на сегменты по id лота ({@code auction.hot-store.segments}), у каждого сегмента
+ * своя таблица и свой StampedLock. Чтение идет без блокировки (оптимистичное чтение), изменения
+ * выполняются под блокировкой записи только сегмента лота, поэтому ставки по лотам разных сегментов
+ * применяются параллельно. Загрузка из БД не сохраняется, если за время чтения по лотам той же полосы
+ * выполнялась или завершилась запись ставок: прочитанные данные могли уже включать эти ставки.
+ * Счетчики полос атомарные, поэтому транзакция ставок берет блокировку записи сегмента только один раз,
+ * чтобы применить зафиксированные ставки.
+ */
+@Component
+public class HotLotStore implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotLotStore.class);
+
+    private static final int STRIPES = 1024;
+
+    private final HotLotStoreProperties properties;
+    private final LotRepository lotRepository;
+    private final Segment[] segments;
+    private final AtomicLongArray stripeStamps = new AtomicLongArray(STRIPES);
+    private final AtomicIntegerArray stripeWrites = new AtomicIntegerArray(STRIPES);
+    private ScheduledExecutorService snapshotter;
+    private volatile boolean running;
+
+    public HotLotStore(HotLotStoreProperties properties, LotRepository lotRepository) {
+        this.properties = properties;
+        this.lotRepository = lotRepository;
+        int segmentCount = 1;
+        while (segmentCount < Math.min(properties.getSegments(), STRIPES)) {
+            segmentCount <<= 1;
+        }
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(properties.getInitialCapacity() / segmentCount);
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Читает без блокировки и без выделения памяти; если за время чтения сегмент изменился, повторяет
+     * чтение под блокировкой чтения.
+     *
+     * @return текущая цена из хранилища, если оно знает лот не хуже версии {@code minVersion}, иначе {@code fallback}
+     */
+    public int currentPrice(int lotId, long minVersion, int fallback) {
+        if (!properties.isEnabled()) {
+            return fallback;
+        }
+        Segment segment = segment(lotId);
+        HotLotTable table = segment.table;
+        long stamp = segment.lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                int record = freshRecord(table, lotId, minVersion);
+                int price = record == HotLotTable.NONE ? fallback : table.getInt(record, HotLotTable.CURRENT_PRICE);
+                if (segment.lock.validate(stamp)) {
+                    return price;
+                }
+            } catch (RuntimeException e) {
+                // таблица перестраивалась во время чтения, результат все равно отбрасывается
+            }
+        }
+        stamp = segment.lock.readLock();
+        try {
+            int record = freshRecord(table, lotId, minVersion);
+            return record == HotLotTable.NONE ? fallback : table.getInt(record, HotLotTable.CURRENT_PRICE);
+        } finally {
+            segment.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Заполняет последнюю ставку, если хранилище знает лот не хуже версии {@code minVersion}.
+     * Читает так же, как {@link #currentPrice}, и пишет сразу в {@code target}.
+     *
+     * @return false, если лота нет в хранилище, он устарел или ставок нет
+     */
+    public boolean readLastBid(int lotId, long minVersion, BidDTO target) {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        Segment segment = segment(lotId);
+        HotLotTable table = segment.table;
+        String bidderName = null;
+        long bidTime = 0;
+        long stamp = segment.lock.tryOptimisticRead();
+        boolean valid = false;
+        if (stamp != 0) {
+            try {
+                int record = lastBidRecord(table, lotId, minVersion);
+                if (record != HotLotTable.NONE) {
+                    bidderName = table.names.name(table.getInt(record, HotLotTable.LAST_BIDDER));
+                    bidTime = table.getLong(record, HotLotTable.LAST_BID_TIME);
+                }
+                valid = segment.lock.validate(stamp);
+            } catch (RuntimeException e) {
+                // таблица перестраивалась во время чтения, результат все равно отбрасывается
+            }
+        }
+        if (!valid) {
+            bidderName = null;
+            stamp = segment.lock.readLock();
+            try {
+                int record = lastBidRecord(table, lotId, minVersion);
+                if (record != HotLotTable.NONE) {
+                    bidderName = table.names.name(table.getInt(record, HotLotTable.LAST_BIDDER));
+                    bidTime = table.getLong(record, HotLotTable.LAST_BID_TIME);
+                }
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        if (bidderName == null) {
+            return false;
+        }
+        target.setBidderName(bidderName);
+        target.setBidTime(new Timestamp(bidTime));
+        return true;
+    }
+
+    /**
+     * @return запись лота, если хранилище знает его не хуже версии {@code minVersion}, иначе {@link HotLotTable#NONE}
+     */
+    private static int freshRecord(HotLotTable table, int lotId, long minVersion) {
+        int record = table.record(lotId);
+        if (record == HotLotTable.NONE || table.getLong(record, HotLotTable.VERSION) < minVersion) {
+            return HotLotTable.NONE;
+        }
+        return record;
+    }
+
+    private static int lastBidRecord(HotLotTable table, int lotId, long minVersion) {
+        int record = freshRecord(table, lotId, minVersion);
+        if (record == HotLotTable.NONE || table.getInt(record, HotLotTable.BID_COUNT) == 0) {
+            return HotLotTable.NONE;
+        }
+        return record;
+    }
+
+    /**
+     * @return первый ставивший по лоту или null, если лота нет в хранилище или хранилище знает его хуже версии {@code minVersion}
+     */
+    public AuctionResult<BidDTO> firstBidder(int lotId, long minVersion) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        Segment segment = segment(lotId);
+        HotLotTable table = segment.table;
+        return read(segment, () -> {
+            int record = freshRecord(table, lotId, minVersion);
+            if (record == HotLotTable.NONE) {
+                return null;
+            }
+            if (table.getInt(record, HotLotTable.BID_COUNT) == 0) {
+                return AuctionResult.failure(AuctionFailure.NO_BIDS);
+            }
+            return AuctionResult.success(bid(table, table.getInt(record, HotLotTable.FIRST_BIDDER),
+                    table.getLong(record, HotLotTable.FIRST_BID_TIME)));
+        });
+    }
+
+    /**
+     * @return участник с наибольшим количеством ставок по лоту или null, если лота нет в хранилище или хранилище знает его хуже версии {@code minVersion}
+     */
+    public AuctionResult<BidDTO> mostFrequentBidder(int lotId, long minVersion) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        Segment segment = segment(lotId);
+        HotLotTable table = segment.table;
+        return read(segment, () -> {
+            int record = freshRecord(table, lotId, minVersion);
+            if (record == HotLotTable.NONE) {
+                return null;
+            }
+            if (table.getInt(record, HotLotTable.BID_COUNT) == 0) {
+                return AuctionResult.failure(AuctionFailure.NO_BIDS);
+            }
+            if (table.getInt(record, HotLotTable.LEADER_TIES) > 1) {
+                return AuctionResult.failure(AuctionFailure.NO_SINGLE_LEADER);
+            }
+            int leader = table.getInt(record, HotLotTable.LEADER);
+            return AuctionResult.success(bid(table, leader, table.pairTime(table.pair(lotId, leader))));
+        });
+    }
+
+    private static BidDTO bid(HotLotTable table, int bidder, long bidTime) {
+        BidDTO bidDTO = new BidDTO();
+        bidDTO.setBidderName(table.names.name(bidder));
+        bidDTO.setBidTime(new Timestamp(bidTime));
+        return bidDTO;
+    }
+
+    /**
+     * Сначала читает без блокировки; если за это время сегмент изменился, повторяет чтение под блокировкой чтения.
+     */
+    private static <T> T read(Segment segment, Supplier<T> reader) {
+        long stamp = segment.lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T value = reader.get();
+                if (segment.lock.validate(stamp)) {
+                    return value;
+                }
+            } catch (RuntimeException e) {
+                // таблица перестраивалась во время чтения, результат все равно отбрасывается
+            }
+        }
+        stamp = segment.lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            segment.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Метка полосы лота, которую нужно получить до чтения лота из БД и передать в {@link #load}.
+     */
+    public long stamp(int lotId) {
+        int stripe = stripe(lotId);
+        return stripeWrites.get(stripe) == 0 ? stripeStamps.get(stripe) : -1;
+    }
+
+    /**
+     * Сохраняет лот в статусе STARTED, прочитанный из БД, вместе с количеством ставок участников.
+     * Лот не сохраняется, если после получения {@code stamp} по его полосе записывались ставки
+     * или если количество ставок участников не сходится с количеством ставок лота.
+     */
+    public void load(Lot lot, List<BidderStats> bidders, long stamp) {
+        if (!properties.isEnabled() || stamp < 0 || lot.getStatus() != LotStatus.STARTED) {
+            return;
+        }
+        long bidCount = 0;
+        for (BidderStats bidder : bidders) {
+            bidCount += bidder.bidCount();
+        }
+        if (bidCount != lot.getBidCount()) {
+            return;
+        }
+        Segment segment = segment(lot.getId());
+        HotLotTable table = segment.table;
+        long writeStamp = segment.lock.writeLock();
+        try {
+            int stripe = stripe(lot.getId());
+            if (stripeStamps.get(stripe) != stamp || stripeWrites.get(stripe) != 0 || table.record(lot.getId()) != HotLotTable.NONE) {
+                return;
+            }
+            int record = table.insertLot(lot.getId());
+            table.setInt(record, HotLotTable.BID_COUNT, lot.getBidCount());
+            table.setLong(record, HotLotTable.VERSION, lot.getVersion());
+            table.setInt(record, HotLotTable.CURRENT_PRICE, lot.getCurrentPrice());
+            table.setInt(record, HotLotTable.BID_PRICE, lot.getBidPrice());
+            for (BidderStats bidder : bidders) {
+                table.addBidder(record, bidder.bidderName(), (int) bidder.bidCount(), bidder.lastBidTime().getTime());
+            }
+            if (lot.getBidCount() > 0) {
+                int firstBidder = table.names.find(lot.getFirstBidderName());
+                int lastBidder = table.names.find(lot.getLastBidderName());
+                if (!table.hasPair(record, firstBidder) || !table.hasPair(record, lastBidder)) {
+                    // первый или последний ставивший не среди участников: агрегаты лота расходятся со ставками
+                    table.removeLot(lot.getId());
+                    return;
+                }
+                table.setInt(record, HotLotTable.FIRST_BIDDER, firstBidder);
+                table.setLong(record, HotLotTable.FIRST_BID_TIME, lot.getFirstBidTime().getTime());
+                table.setInt(record, HotLotTable.LAST_BIDDER, lastBidder);
+                table.setLong(record, HotLotTable.LAST_BID_TIME, lot.getLastBidTime().getTime());
+            }
+        } finally {
+            segment.lock.unlockWrite(writeStamp);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                size += segment.table.lotCount();
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Ставки применяются после фиксации транзакции. До фиксации полосы лотов помечаются как
+     * изменяемые, чтобы параллельная загрузка не сохранила данные, уже включающие эти ставки.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onBidsPlaced(BidsPlacedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Set<Integer> lotIds = event.lotIds();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applyBids(event.bids(), lotIds, false);
+            return;
+        }
+        for (int lotId : lotIds) {
+            stripeWrites.incrementAndGet(stripe(lotId));
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    // метка меняется раньше счетчика: загрузка, увидевшая старую метку, увидит и незавершенную запись
+                    for (int lotId : lotIds) {
+                        stripeStamps.incrementAndGet(stripe(lotId));
+                        stripeWrites.decrementAndGet(stripe(lotId));
+                    }
+                    return;
+                }
+                applyBids(event.bids(), lotIds, true);
+            }
+        });
+    }
+
+    /**
+     * Ставки применяются под блокировкой записи только тех сегментов, в которых лежат их лоты, поэтому
+     * транзакции по лотам разных сегментов не ждут друг друга. Одно событие соответствует одному обновлению
+     * агрегатов каждого лота, поэтому версия лота растет на единицу.
+     *
+     * @param marked полосы лотов помечены как изменяемые до фиксации, и пометку нужно снять
+     */
+    private void applyBids(List<BidsPlacedEvent.PlacedBid> bids, Set<Integer> lotIds, boolean marked) {
+        Set<Segment> touched = new LinkedHashSet<>();
+        for (int lotId : lotIds) {
+            touched.add(segment(lotId));
+        }
+        for (Segment segment : touched) {
+            HotLotTable table = segment.table;
+            long stamp = segment.lock.writeLock();
+            try {
+                for (BidsPlacedEvent.PlacedBid bid : bids) {
+                    if (segment(bid.lotId()) != segment) {
+                        continue;
+                    }
+                    int record = table.record(bid.lotId());
+                    if (record != HotLotTable.NONE) {
+                        table.applyBid(record, bid.bidderName(), bid.bidTime().getTime());
+                    }
+                }
+                for (int lotId : lotIds) {
+                    if (segment(lotId) != segment) {
+                        continue;
+                    }
+                    if (marked) {
+                        stripeWrites.decrementAndGet(stripe(lotId));
+                    }
+                    stripeStamps.incrementAndGet(stripe(lotId));
+                    int record = table.record(lotId);
+                    if (record != HotLotTable.NONE) {
+                        table.setLong(record, HotLotTable.VERSION, table.getLong(record, HotLotTable.VERSION) + 1);
+                    }
+                }
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLotStatusChanged(LotStatusChangedEvent event) {
+        if (properties.isEnabled()) {
+            remove(Set.of(event.lotId()));
+        }
+    }
+
+    @EventListener
+    public void onRemoteLotsChanged(RemoteLotsChangedEvent event) {
+        if (properties.isEnabled()) {
+            remove(event.lotIds());
+        }
+    }
+
+    /**
+     * Очищает хранилище, когда неизвестно, какие лоты изменились. Метки меняются до очистки сегментов:
+     * загрузка, начатая раньше, не сохранится, а начатая позже может сохраниться только с новыми данными.
+     */
+    public void clear() {
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            stripeStamps.incrementAndGet(stripe);
+        }
+        for (Segment segment : segments) {
+            HotLotTable table = segment.table;
+            long stamp = segment.lock.writeLock();
+            try {
+                List<Integer> lotIds = new ArrayList<>(table.lotCount());
+                table.forEachRecord(record -> lotIds.add(table.getInt(record, HotLotTable.LOT_ID)));
+                lotIds.forEach(table::removeLot);
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    private void remove(Set<Integer> lotIds) {
+        for (int lotId : lotIds) {
+            Segment segment = segment(lotId);
+            long stamp = segment.lock.writeLock();
+            try {
+                stripeStamps.incrementAndGet(stripe(lotId));
+                segment.table.removeLot(lotId);
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * Снимок собирается по сегментам: под блокировкой чтения сегмент только копируется в свой буфер
+     * в памяти, поэтому ставки ждут лишь копирования своего сегмента. Запись файла и сброс на диск
+     * идут без блокировок.
+     */
+    private void writeSnapshot() {
+        Path file = Path.of(properties.getSnapshotFile());
+        long started = System.nanoTime();
+        int lots = 0;
+        List<ByteBuffer> sections = new ArrayList<>(segments.length);
+        for (Segment segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                lots += segment.table.lotCount();
+                segment.staging = HotLotSnapshot.encode(segment.table, segment.staging);
+            } catch (IOException | RuntimeException e) {
+                logger.error("Не удалось записать снимок лотов в {}: {}", file, e.getMessage());
+                return;
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+            sections.add(segment.staging);
+        }
+        try {
+            HotLotSnapshot.write(sections, file);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Не удалось записать снимок лотов в {}: {}", file, e.getMessage());
+            return;
+        }
+        logger.debug("Снимок лотов записан: {} лотов за {} мс", lots, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    /**
+     * Восстанавливает лоты из снимка. Лот восстанавливается, только если он по-прежнему в статусе
+     * STARTED и его версия в БД совпадает с версией в снимке.
+     */
+    private void restoreSnapshot() {
+        Path file = Path.of(properties.getSnapshotFile());
+        if (!Files.exists(file)) {
+            return;
+        }
+        long started = System.nanoTime();
+        HotLotSnapshot snapshot;
+        try {
+            snapshot = HotLotSnapshot.open(file);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Не удалось прочитать снимок лотов {}: {}", file, e.getMessage());
+            return;
+        }
+        int restored = 0;
+        int total = 0;
+        for (HotLotSnapshot.Section section : snapshot.sections()) {
+            int offset = section.firstLotOffset();
+            int remaining = section.lotCount();
+            total += remaining;
+            while (remaining > 0) {
+                int batch = Math.min(remaining, properties.getRestoreBatchSize());
+                int[] offsets = new int[batch];
+                List<Integer> lotIds = new ArrayList<>(batch);
+                for (int i = 0; i < batch; i++) {
+                    offsets[i] = offset;
+                    lotIds.add(snapshot.lotId(offset));
+                    offset = snapshot.nextLotOffset(offset);
+                }
+                remaining -= batch;
+                long[] stamps = stripeStamps();
+                Map<Integer, Long> versions = new HashMap<>(batch * 2);
+                for (LotVersion lotVersion : lotRepository.findVersions(lotIds, LotStatus.STARTED)) {
+                    versions.put(lotVersion.id(), lotVersion.version());
+                }
+                restored += restoreBatch(snapshot, section.names(), offsets, versions, stamps);
+            }
+        }
+        logger.info("Восстановлено из снимка лотов: {} из {} за {} мс", restored, total,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    /**
+     * Имена участников интернируются по мере восстановления пар, поэтому имена лотов, которые
+     * не восстановлены, в таблицу не попадают.
+     */
+    private int restoreBatch(HotLotSnapshot snapshot, String[] names, int[] offsets, Map<Integer, Long> versions, long[] stamps) {
+        ByteBuffer buffer = snapshot.buffer();
+        int restored = 0;
+        for (int offset : offsets) {
+            int lotId = snapshot.lotId(offset);
+            Segment segment = segment(lotId);
+            HotLotTable table = segment.table;
+            long stamp = segment.lock.writeLock();
+            try {
+                int stripe = stripe(lotId);
+                Long version = versions.get(lotId);
+                if (version == null || version != snapshot.version(offset) || stripeStamps.get(stripe) != stamps[stripe]
+                        || stripeWrites.get(stripe) != 0 || table.record(lotId) != HotLotTable.NONE) {
+                    continue;
+                }
+                int record = table.restoreRecord(buffer, offset);
+                int pairOffset = offset + HotLotTable.RECORD_SIZE;
+                for (int pair = 0; pair < snapshot.pairCount(offset); pair++, pairOffset += HotLotSnapshot.PAIR_SIZE) {
+                    table.restorePair(record, names[buffer.getInt(pairOffset)], buffer.getInt(pairOffset + 4),
+                            buffer.getLong(pairOffset + 8));
+                }
+                if (restoreBidders(table, record, names)) {
+                    restored++;
+                } else {
+                    table.removeLot(lotId);
+                }
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+        return restored;
+    }
+
+    /**
+     * Переводит номера первого, последнего ставившего и лидера из номеров снимка в номера таблицы.
+     *
+     * @return false, если кто-то из них не среди участников лота
+     */
+    private static boolean restoreBidders(HotLotTable table, int record, String[] names) {
+        for (int field : new int[]{HotLotTable.FIRST_BIDDER, HotLotTable.LAST_BIDDER, HotLotTable.LEADER}) {
+            int bidder = table.getInt(record, field);
+            if (bidder == HotLotTable.NONE) {
+                continue;
+            }
+            int id = bidder < names.length ? table.names.find(names[bidder]) : -1;
+            if (!table.hasPair(record, id)) {
+                return false;
+            }
+            table.setInt(record, field, id);
+        }
+        return true;
+    }
+
+    private long[] stripeStamps() {
+        long[] stamps = new long[STRIPES];
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            stamps[stripe] = stripeStamps.get(stripe);
+        }
+        return stamps;
+    }
+
+    private static int stripe(int lotId) {
+        return lotId & (STRIPES - 1);
+    }
+
+    /**
+     * Число сегментов не больше числа полос, поэтому вся полоса лежит в одном сегменте.
+     */
+    private Segment segment(int lotId) {
+        return segments[lotId & (segments.length - 1)];
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!properties.isEnabled() || properties.getSnapshotFile().isBlank()) {
+            return;
+        }
+        restoreSnapshot();
+        snapshotter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hot-lot-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.getSnapshotInterval().toMillis();
+        snapshotter.scheduleWithFixedDelay(this::writeSnapshot, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (snapshotter == null) {
+            return;
+        }
+        snapshotter.shutdown();
+        try {
+            snapshotter.awaitTermination(properties.getSnapshotInterval().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        snapshotter = null;
+        writeSnapshot();
+    }
+
+    @Override
+    public int getPhase() {
+        // останавливается после приема ставок, чтобы последний снимок включал дописанную очередь
+        return SmartLifecycle.DEFAULT_PHASE - 8192;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Часть таблицы лотов со своей блокировкой. Буфер снимка используется только потоком снимков.
+     */
+    private static final class Segment {
+        private final HotLotTable table;
+        private final StampedLock lock = new StampedLock();
+        private ByteBuffer staging = ByteBuffer.allocate(0);
+
+        private Segment(int initialCapacity) {
+            this.table = new HotLotTable(initialCapacity);
+        }
+    }
+}
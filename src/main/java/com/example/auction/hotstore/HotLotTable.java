@@ -0,0 +1,397 @@
+package com.example.auction.hotstore;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Состояние открытых лотов без объектов на лот. Записи лотов фиксированного размера лежат
+ * вне кучи в direct ByteBuffer, индекс id лота - открытая адресация на массивах int.
+ * Количество ставок участников хранится в таблице пар (лот, участник) на примитивных массивах;
+ * пары одного лота связаны в список, голова которого записана в записи лота. Пары закрепляют имена
+ * участников в {@link BidderNameTable}, поэтому первый, последний ставивший и лидер лота должны быть
+ * среди его пар.
+ * Не потокобезопасна, синхронизацию обеспечивает {@link HotLotStore}.
+ */
+final class HotLotTable {
+
+    static final int RECORD_SIZE = 64;
+
+    static final int LOT_ID = 0;
+    static final int BID_COUNT = 4;
+    static final int VERSION = 8;
+    static final int CURRENT_PRICE = 16;
+    static final int BID_PRICE = 20;
+    static final int FIRST_BIDDER = 24;
+    static final int LAST_BIDDER = 28;
+    static final int FIRST_BID_TIME = 32;
+    static final int LAST_BID_TIME = 40;
+    static final int LEADER = 48;
+    static final int LEADER_COUNT = 52;
+    /**
+     * Число участников с количеством ставок LEADER_COUNT; больше одного - единственного лидера нет.
+     */
+    static final int LEADER_TIES = 56;
+    static final int PAIR_HEAD = 60;
+
+    static final int NONE = -1;
+
+    private static final int FREE_KEY = 0;
+    private static final int DELETED_KEY = -1;
+    private static final long FREE_PAIR = 0;
+    private static final long DELETED_PAIR = -1;
+
+    final BidderNameTable names;
+
+    private ByteBuffer records;
+    private int recordHighWater;
+    private int[] freeRecords;
+    private int freeCount;
+
+    private int[] lotKeys;
+    private int[] lotRecords;
+    private int lotCount;
+    private int lotSlotsUsed;
+
+    private long[] pairKeys;
+    private int[] pairCounts;
+    private long[] pairTimes;
+    private int[] pairNext;
+    private int pairCount;
+    private int pairSlotsUsed;
+
+    HotLotTable(int initialLots) {
+        int lots = Integer.highestOneBit(Math.max(16, initialLots) - 1) << 1;
+        names = new BidderNameTable(lots);
+        records = ByteBuffer.allocateDirect(lots * RECORD_SIZE);
+        freeRecords = new int[16];
+        lotKeys = new int[lots * 2];
+        lotRecords = new int[lots * 2];
+        allocatePairs(lots * 4);
+    }
+
+    int lotCount() {
+        return lotCount;
+    }
+
+    int pairCount() {
+        return pairCount;
+    }
+
+    /**
+     * @return номер записи лота или {@link #NONE}
+     */
+    int record(int lotId) {
+        int[] keys = lotKeys;
+        int mask = keys.length - 1;
+        for (int index = BidderNameTable.mix(lotId) & mask, probes = 0; probes < keys.length; index = (index + 1) & mask, probes++) {
+            int key = keys[index];
+            if (key == lotId) {
+                return lotRecords[index];
+            }
+            if (key == FREE_KEY) {
+                return NONE;
+            }
+        }
+        return NONE;
+    }
+
+    int getInt(int record, int field) {
+        return records.getInt(record * RECORD_SIZE + field);
+    }
+
+    long getLong(int record, int field) {
+        return records.getLong(record * RECORD_SIZE + field);
+    }
+
+    void setInt(int record, int field, int value) {
+        records.putInt(record * RECORD_SIZE + field, value);
+    }
+
+    void setLong(int record, int field, long value) {
+        records.putLong(record * RECORD_SIZE + field, value);
+    }
+
+    /**
+     * Создает пустую запись лота; существующая запись с тем же id очищается.
+     */
+    int insertLot(int lotId) {
+        int record = record(lotId);
+        if (record == NONE) {
+            record = allocateRecord();
+            if ((lotSlotsUsed + 1) * 2 > lotKeys.length) {
+                rehashLots(lotCount * 4 > lotKeys.length ? lotKeys.length * 2 : lotKeys.length);
+            }
+            insertKey(lotKeys, lotRecords, lotId, record);
+            lotSlotsUsed++;
+            lotCount++;
+        } else {
+            releasePairs(record);
+        }
+        int offset = record * RECORD_SIZE;
+        for (int field = 0; field < RECORD_SIZE; field += Long.BYTES) {
+            records.putLong(offset + field, 0);
+        }
+        setInt(record, LOT_ID, lotId);
+        setInt(record, FIRST_BIDDER, NONE);
+        setInt(record, LAST_BIDDER, NONE);
+        setInt(record, LEADER, NONE);
+        setInt(record, PAIR_HEAD, NONE);
+        return record;
+    }
+
+    void removeLot(int lotId) {
+        int[] keys = lotKeys;
+        int mask = keys.length - 1;
+        for (int index = BidderNameTable.mix(lotId) & mask; keys[index] != FREE_KEY; index = (index + 1) & mask) {
+            if (keys[index] == lotId) {
+                int record = lotRecords[index];
+                releasePairs(record);
+                keys[index] = DELETED_KEY;
+                lotCount--;
+                if (freeCount == freeRecords.length) {
+                    freeRecords = Arrays.copyOf(freeRecords, freeCount * 2);
+                }
+                freeRecords[freeCount++] = record;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Учитывает ставку: количество ставок и цену лота, первого и последнего ставившего,
+     * количество ставок участника и лидера.
+     */
+    void applyBid(int record, String bidderName, long bidTime) {
+        int bidder = names.intern(bidderName);
+        int bidCount = getInt(record, BID_COUNT) + 1;
+        setInt(record, BID_COUNT, bidCount);
+        setInt(record, CURRENT_PRICE, getInt(record, CURRENT_PRICE) + getInt(record, BID_PRICE));
+        if (bidCount == 1) {
+            setInt(record, FIRST_BIDDER, bidder);
+            setLong(record, FIRST_BID_TIME, bidTime);
+        }
+        setInt(record, LAST_BIDDER, bidder);
+        setLong(record, LAST_BID_TIME, bidTime);
+        int pair = findOrInsertPair(record, bidder);
+        pairCounts[pair]++;
+        pairTimes[pair] = Math.max(pairTimes[pair], bidTime);
+        updateLeader(record, bidder, pairCounts[pair]);
+    }
+
+    /**
+     * Добавляет участника с уже подсчитанным количеством ставок при загрузке лота.
+     */
+    void addBidder(int record, String bidderName, int bidCount, long lastBidTime) {
+        int bidder = names.intern(bidderName);
+        int pair = findOrInsertPair(record, bidder);
+        pairCounts[pair] = bidCount;
+        pairTimes[pair] = lastBidTime;
+        updateLeader(record, bidder, bidCount);
+    }
+
+    /**
+     * Пара восстанавливается из снимка вместе с уже рассчитанным лидером.
+     */
+    void restorePair(int record, String bidderName, int bidCount, long lastBidTime) {
+        int pair = findOrInsertPair(record, names.intern(bidderName));
+        pairCounts[pair] = bidCount;
+        pairTimes[pair] = lastBidTime;
+    }
+
+    /**
+     * @return номер пары или {@link #NONE}
+     */
+    int pair(int lotId, int bidder) {
+        long[] keys = pairKeys;
+        long pairKey = pairKey(lotId, bidder);
+        int mask = keys.length - 1;
+        for (int index = mixPair(pairKey) & mask, probes = 0; probes < keys.length; index = (index + 1) & mask, probes++) {
+            long key = keys[index];
+            if (key == pairKey) {
+                return index;
+            }
+            if (key == FREE_PAIR) {
+                return NONE;
+            }
+        }
+        return NONE;
+    }
+
+    long pairTime(int pair) {
+        return pairTimes[pair];
+    }
+
+    int pairCount(int pair) {
+        return pairCounts[pair];
+    }
+
+    /**
+     * @return true, если у участника есть пара с лотом записи
+     */
+    boolean hasPair(int record, int bidder) {
+        return bidder >= 0 && pair(getInt(record, LOT_ID), bidder) != NONE;
+    }
+
+    int pairBidder(int pair) {
+        return (int) pairKeys[pair];
+    }
+
+    int nextPair(int pair) {
+        return pairNext[pair];
+    }
+
+    /**
+     * Обходит записи живых лотов.
+     */
+    void forEachRecord(IntConsumer consumer) {
+        int[] keys = lotKeys;
+        for (int index = 0; index < keys.length; index++) {
+            if (keys[index] > 0) {
+                consumer.accept(lotRecords[index]);
+            }
+        }
+    }
+
+    /**
+     * Копирует запись лота в {@code target} начиная с его текущей позиции.
+     */
+    void copyRecord(int record, ByteBuffer target) {
+        target.put(records.slice(record * RECORD_SIZE, RECORD_SIZE));
+    }
+
+    /**
+     * Восстанавливает запись лота из снимка без пар участников.
+     */
+    int restoreRecord(ByteBuffer source, int offset) {
+        int record = insertLot(source.getInt(offset + LOT_ID));
+        records.put(record * RECORD_SIZE, source, offset, RECORD_SIZE);
+        setInt(record, PAIR_HEAD, NONE);
+        return record;
+    }
+
+    private void updateLeader(int record, int bidder, int bidderCount) {
+        int leaderCount = getInt(record, LEADER_COUNT);
+        if (bidderCount > leaderCount) {
+            setInt(record, LEADER, bidder);
+            setInt(record, LEADER_COUNT, bidderCount);
+            setInt(record, LEADER_TIES, 1);
+        } else if (bidderCount == leaderCount && bidder != getInt(record, LEADER)) {
+            setInt(record, LEADER_TIES, getInt(record, LEADER_TIES) + 1);
+        }
+    }
+
+    private int allocateRecord() {
+        if (freeCount > 0) {
+            return freeRecords[--freeCount];
+        }
+        if ((recordHighWater + 1) * RECORD_SIZE > records.capacity()) {
+            ByteBuffer grown = ByteBuffer.allocateDirect(records.capacity() * 2);
+            grown.put(0, records, 0, recordHighWater * RECORD_SIZE);
+            records = grown;
+        }
+        return recordHighWater++;
+    }
+
+    private void releasePairs(int record) {
+        for (int pair = getInt(record, PAIR_HEAD); pair != NONE; pair = pairNext[pair]) {
+            names.release(pairBidder(pair));
+            pairKeys[pair] = DELETED_PAIR;
+            pairCount--;
+        }
+        setInt(record, PAIR_HEAD, NONE);
+    }
+
+    private int findOrInsertPair(int record, int bidder) {
+        int lotId = getInt(record, LOT_ID);
+        int pair = pair(lotId, bidder);
+        if (pair != NONE) {
+            return pair;
+        }
+        if ((pairSlotsUsed + 1) * 2 > pairKeys.length) {
+            rehashPairs(pairCount * 4 > pairKeys.length ? pairKeys.length * 2 : pairKeys.length);
+        }
+        pair = insertPair(pairKey(lotId, bidder));
+        names.retain(bidder);
+        pairNext[pair] = getInt(record, PAIR_HEAD);
+        setInt(record, PAIR_HEAD, pair);
+        pairSlotsUsed++;
+        pairCount++;
+        return pair;
+    }
+
+    private int insertPair(long pairKey) {
+        int mask = pairKeys.length - 1;
+        int index = mixPair(pairKey) & mask;
+        while (pairKeys[index] != FREE_PAIR) {
+            index = (index + 1) & mask;
+        }
+        pairKeys[index] = pairKey;
+        return index;
+    }
+
+    private void rehashLots(int capacity) {
+        int[] keys = new int[capacity];
+        int[] values = new int[capacity];
+        for (int index = 0; index < lotKeys.length; index++) {
+            if (lotKeys[index] > 0) {
+                insertKey(keys, values, lotKeys[index], lotRecords[index]);
+            }
+        }
+        lotKeys = keys;
+        lotRecords = values;
+        lotSlotsUsed = lotCount;
+    }
+
+    /**
+     * Перестраивает таблицу пар без удаленных ячеек; списки пар лотов строятся заново.
+     */
+    private void rehashPairs(int capacity) {
+        long[] oldKeys = pairKeys;
+        int[] oldCounts = pairCounts;
+        long[] oldTimes = pairTimes;
+        allocatePairs(capacity);
+        forEachRecord(record -> setInt(record, PAIR_HEAD, NONE));
+        for (int index = 0; index < oldKeys.length; index++) {
+            long key = oldKeys[index];
+            if (key > 0) {
+                int pair = insertPair(key);
+                pairCounts[pair] = oldCounts[index];
+                pairTimes[pair] = oldTimes[index];
+                int record = record((int) (key >>> 32));
+                pairNext[pair] = getInt(record, PAIR_HEAD);
+                setInt(record, PAIR_HEAD, pair);
+                pairSlotsUsed++;
+            }
+        }
+    }
+
+    private void allocatePairs(int capacity) {
+        pairKeys = new long[capacity];
+        pairCounts = new int[capacity];
+        pairTimes = new long[capacity];
+        pairNext = new int[capacity];
+        pairSlotsUsed = 0;
+    }
+
+    private static void insertKey(int[] keys, int[] values, int key, int value) {
+        int mask = keys.length - 1;
+        int index = BidderNameTable.mix(key) & mask;
+        while (keys[index] > 0) {
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+    }
+
+    /**
+     * id лота положителен, поэтому ключ пары не совпадает с отметками пустой и удаленной ячейки.
+     */
+    private static long pairKey(int lotId, int bidder) {
+        return ((long) lotId << 32) | (bidder & 0xFFFFFFFFL);
+    }
+
+    private static int mixPair(long key) {
+        return BidderNameTable.mix((int) (key ^ (key >>> 32)));
+    }
+}
@@ -0,0 +1,633 @@
+package com.example.auction.ingest;
+
+import com.example.auction.config.BidIngestProperties;
+import com.example.auction.dto.BatchBidEntryDTO;
+import com.example.auction.enums.IngestAckMode;
+import com.example.auction.enums.LotStatus;
+import com.example.auction.event.BidsPlacedEvent;
+import com.example.auction.lifecycle.AntiSnipingPolicy;
+import com.example.auction.model.Lot;
+import com.example.auction.repository.BidBatchRepository;
+import com.example.auction.repository.BidDeadLetterRepository;
+import com.example.auction.repository.BidJournalCheckpointRepository;
+import com.example.auction.repository.BidStatsRepository;
+import com.example.auction.repository.LotRepository;
+import com.example.auction.utilities.ServiceUtilities;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Прием ставок в памяти с отложенной пакетной записью в БД.
+ * Для лотов в статусе STARTED хранится состояние в памяти; ставке сразу присваиваются
+ * порядковый номер и время, после чего она попадает в ограниченную очередь,
+ * которую разбирает отдельный поток записи.
+ * <p>
+ * В режиме подтверждения JOURNAL ставка вместо очереди пишется в локальный журнал ({@link BidJournal})
+ * и подтверждается после его сброса на диск. Поток записи читает журнал и записывает ставки в БД
+ * вместе с номером последней записанной ставки узла, поэтому после сбоя журнал дочитывается
+ * с места остановки без повторной записи ставок.
+ */
+@Component
+public class BidIngestEngine implements SmartLifecycle {
+
+    public enum Outcome {
+        ACCEPTED,
+        /**
+         * Ставка принята и будет записана, но подтверждение не дождалось записи в БД или сброса журнала.
+         */
+        ACCEPTED_UNCONFIRMED,
+        LOT_NOT_FOUND,
+        WRONG_STATUS,
+        INVALID_BIDDER_NAME,
+        /**
+         * Очередь заполнена или журнал недоступен. Синхронная запись здесь не подходит:
+         * она обогнала бы ставки по лоту, еще стоящие в очереди.
+         */
+        OVERLOADED,
+        /**
+         * Лот не удалось загрузить в память; по нему в очереди нет ставок, и ставку можно записать синхронно.
+         */
+        REJECTED
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(BidIngestEngine.class);
+
+    private static final String LOT_CLOSED_REASON = "Лот остановлен или закрыт до записи ставки";
+
+    private final BidIngestProperties properties;
+    private final LotRepository lotRepository;
+    private final BidBatchRepository bidBatchRepository;
+    private final BidStatsRepository bidStatsRepository;
+    private final BidJournalCheckpointRepository checkpointRepository;
+    private final BidDeadLetterRepository deadLetterRepository;
+    private final ServiceUtilities serviceUtilities;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AntiSnipingPolicy antiSnipingPolicy;
+    private final ConcurrentHashMap<Integer, LiveLot> liveLots = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong statusEpoch = new AtomicLong();
+    private final BlockingQueue<PendingBid> queue;
+    private volatile boolean running;
+    private Thread writer;
+    private BidJournal journal;
+    private String journalNodeId;
+
+    public BidIngestEngine(BidIngestProperties properties, LotRepository lotRepository, BidBatchRepository bidBatchRepository,
+                           BidStatsRepository bidStatsRepository, BidJournalCheckpointRepository checkpointRepository,
+                           BidDeadLetterRepository deadLetterRepository,
+                           ServiceUtilities serviceUtilities, TransactionTemplate transactionTemplate, ApplicationEventPublisher eventPublisher,
+                           AntiSnipingPolicy antiSnipingPolicy) {
+        this.properties = properties;
+        this.lotRepository = lotRepository;
+        this.bidBatchRepository = bidBatchRepository;
+        this.bidStatsRepository = bidStatsRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.deadLetterRepository = deadLetterRepository;
+        this.serviceUtilities = serviceUtilities;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.antiSnipingPolicy = antiSnipingPolicy;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled() && running;
+    }
+
+    public int queuedBids() {
+        return queue.size();
+    }
+
+    public Outcome submit(int lotId, String bidderName) {
+        Submission submission = enqueue(lotId, bidderName);
+        return submission.bid() == null ? submission.outcome()
+                : await(submission.bid(), System.nanoTime() + properties.getAckTimeout().toNanos());
+    }
+
+    /**
+     * Принимает пакет ставок: все ставки сначала ставятся в очередь (или журнал) в порядке пакета,
+     * затем подтверждения ожидаются с общим сроком ack-timeout на весь пакет.
+     *
+     * @return результаты в порядке ставок пакета
+     */
+    public List<Outcome> submitAll(List<BatchBidEntryDTO> entries) {
+        List<Submission> submissions = new ArrayList<>(entries.size());
+        for (BatchBidEntryDTO entry : entries) {
+            submissions.add(enqueue(entry.getLotId(), entry.getBidderName()));
+        }
+        long deadline = System.nanoTime() + properties.getAckTimeout().toNanos();
+        List<Outcome> outcomes = new ArrayList<>(submissions.size());
+        for (Submission submission : submissions) {
+            outcomes.add(submission.bid() == null ? submission.outcome() : await(submission.bid(), deadline));
+        }
+        return outcomes;
+    }
+
+    /**
+     * Результат постановки ставки: принятая ставка, подтверждение которой еще нужно дождаться, или итоговый результат.
+     */
+    private record Submission(Outcome outcome, PendingBid bid) {
+    }
+
+    private Submission enqueue(int lotId, String bidderName) {
+        if (!ServiceUtilities.isValidBidderName(bidderName)) {
+            return new Submission(Outcome.INVALID_BIDDER_NAME, null);
+        }
+        LiveLot liveLot = liveLots.get(lotId);
+        if (liveLot == null) {
+            Lot lot = lotRepository.findById(lotId).orElse(null);
+            if (lot == null) {
+                return new Submission(Outcome.LOT_NOT_FOUND, null);
+            }
+            if (lot.getStatus() != LotStatus.STARTED) {
+                return new Submission(Outcome.WRONG_STATUS, null);
+            }
+            liveLot = loadLiveLot(lot);
+            if (liveLot == null) {
+                return new Submission(Outcome.REJECTED, null);
+            }
+        }
+        PendingBid pendingBid;
+        liveLot.lock.lock();
+        try {
+            Timestamp bidTime = serviceUtilities.currentBidTime();
+            if (!liveLot.open || bidTime.getTime() >= liveLot.closeAt) {
+                return new Submission(Outcome.WRONG_STATUS, null);
+            }
+            if (journal != null) {
+                pendingBid = appendToJournal(lotId, bidderName, bidTime);
+                if (pendingBid == null) {
+                    return new Submission(Outcome.OVERLOADED, null);
+                }
+            } else {
+                CompletableFuture<Void> flushed = properties.getAckMode() == IngestAckMode.FLUSH ? new CompletableFuture<>() : null;
+                pendingBid = new PendingBid(sequence.incrementAndGet(), lotId, bidderName, bidTime, flushed);
+            }
+            if (journal == null && !queue.offer(pendingBid)) {
+                logger.warn("Очередь ставок переполнена, ставка по лоту {} отклонена", lotId);
+                return new Submission(Outcome.OVERLOADED, null);
+            }
+            // то же продление выполнит UPDATE агрегатов при записи пакета
+            liveLot.closeAt = antiSnipingPolicy.extend(liveLot.closeAt, bidTime.getTime());
+        } finally {
+            liveLot.lock.unlock();
+        }
+        if (pendingBid.flushed() == null && journal == null) {
+            return new Submission(Outcome.ACCEPTED, null);
+        }
+        return new Submission(null, pendingBid);
+    }
+
+    private Outcome await(PendingBid pendingBid, long deadline) {
+        long timeoutMillis = Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+        return pendingBid.flushed() != null ? awaitFlush(pendingBid, timeoutMillis) : awaitJournal(pendingBid, timeoutMillis);
+    }
+
+    /**
+     * Номер ставки в журнале задает порядок ее записи в БД, поэтому добавление идет под блокировкой лота.
+     *
+     * @return null, если журнал закрыт или недоступен
+     */
+    private PendingBid appendToJournal(int lotId, String bidderName, Timestamp bidTime) {
+        try {
+            return new PendingBid(journal.append(lotId, bidderName, bidTime), lotId, bidderName, bidTime, null);
+        } catch (RuntimeException e) {
+            logger.warn("Ставка по лоту {} не добавлена в журнал: {}", lotId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Закрывает прием ставок по лоту. Вызывается до изменения статуса лота в БД,
+     * чтобы после остановки торгов ни одна ставка не попала в очередь.
+     */
+    public void closeLot(int lotId) {
+        statusEpoch.incrementAndGet();
+        LiveLot liveLot = liveLots.remove(lotId);
+        if (liveLot != null) {
+            liveLot.lock.lock();
+            try {
+                liveLot.open = false;
+            } finally {
+                liveLot.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Закрывает прием ставок по лоту, срок закрытия которого наступил по расписанию. Ставки,
+     * принятые в памяти, могли продлить торги еще до записи в БД; тогда лот не закрывается.
+     * Проверка и закрытие выполняются под блокировкой лота, поэтому продление не может вклиниться между ними.
+     *
+     * @return продленный срок закрытия (мс) или -1, если прием ставок закрыт
+     */
+    public long closeLotIfDue(int lotId, long now) {
+        statusEpoch.incrementAndGet();
+        LiveLot liveLot = liveLots.get(lotId);
+        if (liveLot == null) {
+            return -1;
+        }
+        liveLot.lock.lock();
+        try {
+            if (liveLot.open && liveLot.closeAt > now) {
+                return liveLot.closeAt;
+            }
+            liveLot.open = false;
+            liveLots.remove(lotId, liveLot);
+        } finally {
+            liveLot.lock.unlock();
+        }
+        return -1;
+    }
+
+    private LiveLot loadLiveLot(Lot lot) {
+        long epoch = statusEpoch.get();
+        LiveLot loaded = new LiveLot(lot.getCloseAt() == null ? Long.MAX_VALUE : lot.getCloseAt().getTime());
+        int lotId = lot.getId();
+        LiveLot existing = liveLots.putIfAbsent(lotId, loaded);
+        if (existing != null) {
+            return existing;
+        }
+        if (statusEpoch.get() != epoch) {
+            // статус какого-то лота менялся во время чтения - прочитанный STARTED мог устареть
+            liveLots.remove(lotId, loaded);
+            return null;
+        }
+        return loaded;
+    }
+
+    /**
+     * Ошибкой считается только отказ записи ставки; если не дождались записи, ставка остается
+     * в очереди и будет записана, поэтому клиенту нельзя сообщать об отказе.
+     */
+    private Outcome awaitFlush(PendingBid pendingBid, long timeoutMillis) {
+        try {
+            pendingBid.flushed().get(timeoutMillis, TimeUnit.MILLISECONDS);
+            return Outcome.ACCEPTED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Outcome.ACCEPTED_UNCONFIRMED;
+        } catch (TimeoutException e) {
+            logger.warn("Запись ставки по лоту {} не подтверждена за {}", pendingBid.lotId(), properties.getAckTimeout());
+            return Outcome.ACCEPTED_UNCONFIRMED;
+        } catch (CancellationException e) {
+            return Outcome.WRONG_STATUS;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ставка не записана в БД", e.getCause());
+        }
+    }
+
+    /**
+     * Ставка уже в журнале: если сброс на диск не дождались, она все равно может быть записана в БД.
+     */
+    private Outcome awaitJournal(PendingBid pendingBid, long timeoutMillis) {
+        try {
+            if (journal.awaitDurable(pendingBid.sequence(), timeoutMillis)) {
+                return Outcome.ACCEPTED;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Outcome.ACCEPTED_UNCONFIRMED;
+        }
+        logger.warn("Сброс журнала для ставки {} по лоту {} не подтвержден за {}", pendingBid.sequence(), pendingBid.lotId(),
+                properties.getAckTimeout());
+        return Outcome.ACCEPTED_UNCONFIRMED;
+    }
+
+    private void writeLoop() {
+        List<PendingBid> batch = new ArrayList<>(properties.getBatchSize());
+        long flushIntervalMillis = properties.getFlushInterval().toMillis();
+        while (running || !queue.isEmpty()) {
+            PendingBid first;
+            try {
+                first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.error("Поток записи ставок прерван, в очереди осталось {} ставок", queue.size());
+                return;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, properties.getBatchSize() - 1);
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Пакет, отклоненный БД из-за нарушения ограничений, записывается по одной ставке,
+     * чтобы потерялись только отклоненные ставки, а не весь пакет. Ставки по лотам, которые
+     * за время ожидания в очереди остановлены или закрыты, не записываются.
+     */
+    private void flush(List<PendingBid> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        batch.sort(Comparator.comparingLong(PendingBid::sequence));
+        RuntimeException failure = writeWithRetries(batch);
+        if (failure == null) {
+            batch.forEach(bid -> completeFlush(bid, null));
+            return;
+        }
+        if (!(failure instanceof DataIntegrityViolationException)) {
+            batch.forEach(bid -> completeFlush(bid, failure));
+            logger.error("Пакет из {} ставок не записан в БД: {}", batch.size(), failure.getMessage());
+            return;
+        }
+        logger.warn("БД отклонила пакет из {} ставок, ставки записываются по одной: {}", batch.size(),
+                ((DataIntegrityViolationException) failure).getMostSpecificCause().getMessage());
+        for (PendingBid bid : batch) {
+            RuntimeException bidFailure = writeWithRetries(List.of(bid));
+            if (bidFailure instanceof DataIntegrityViolationException rejected) {
+                deadLetter(bid, rejected.getMostSpecificCause().getMessage());
+            } else if (bidFailure != null) {
+                logger.error("Ставка по лоту {} от {} не записана в БД: {}", bid.lotId(), bid.bidderName(), bidFailure.getMessage());
+            }
+            completeFlush(bid, bidFailure);
+        }
+    }
+
+    /**
+     * Временные ошибки повторяются с растущей паузой; нарушение ограничений не повторяется.
+     *
+     * @return ошибка последней попытки или null, если ставки записаны
+     */
+    private RuntimeException writeWithRetries(List<PendingBid> bids) {
+        RuntimeException failure = null;
+        long backoffMillis = properties.getFlushRetryBackoff().toMillis();
+        for (int attempt = 1; attempt <= properties.getMaxFlushAttempts(); attempt++) {
+            try {
+                List<PendingBid> closed = transactionTemplate.execute(status -> saveForStartedLots(bids, null));
+                for (PendingBid bid : closed) {
+                    logger.warn("Ставка по лоту {} от {} не записана: лот остановлен или закрыт, пока ставка была в очереди",
+                            bid.lotId(), bid.bidderName());
+                    // отмена подтверждения сообщает ожидающему запросу, что лот уже не принимает ставки
+                    if (bid.flushed() != null) {
+                        bid.flushed().cancel(false);
+                    }
+                }
+                return null;
+            } catch (DataIntegrityViolationException e) {
+                return e;
+            } catch (RuntimeException e) {
+                failure = e;
+                logger.error("Ошибка записи {} ставок в БД (попытка {}): {}", bids.size(), attempt, e.getMessage());
+            }
+            if (attempt < properties.getMaxFlushAttempts()) {
+                try {
+                    Thread.sleep(backoffMillis << (attempt - 1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        return failure;
+    }
+
+    /**
+     * Записывает ставки только по лотам в статусе STARTED, время закрытия которых не наступило:
+     * лот мог быть остановлен на другом узле или планировщиком, пока ставки ждали записи.
+     * Ставки по остальным лотам уже подтверждены клиенту, поэтому переносятся в bid_dead_letter.
+     * Вызывается внутри транзакции; слушатели после фиксации получат событие только при ее успехе.
+     *
+     * @return ставки, не записанные из-за статуса лота
+     */
+    private List<PendingBid> saveForStartedLots(List<PendingBid> bids, String nodeId) {
+        Set<Integer> acceptedLots = bidBatchRepository.saveAllForStartedLots(bids);
+        List<PendingBid> written = new ArrayList<>(bids.size());
+        List<PendingBid> closed = new ArrayList<>();
+        for (PendingBid bid : bids) {
+            (acceptedLots.contains(bid.lotId()) ? written : closed).add(bid);
+        }
+        if (!written.isEmpty()) {
+            bidStatsRepository.incrementAll(written);
+            eventPublisher.publishEvent(new BidsPlacedEvent(written.stream().map(PendingBid::toPlacedBid).toList()));
+        }
+        for (PendingBid bid : closed) {
+            deadLetterRepository.save(bid, nodeId, LOT_CLOSED_REASON);
+        }
+        return closed;
+    }
+
+    private void deadLetter(PendingBid bid, String reason) {
+        try {
+            deadLetterRepository.save(bid, null, reason);
+            logger.error("Ставка по лоту {} отклонена БД и перенесена в bid_dead_letter: {}", bid.lotId(), reason);
+        } catch (RuntimeException e) {
+            logger.error("Ставка по лоту {} от {} отклонена БД ({}) и потеряна: {}", bid.lotId(), bid.bidderName(), reason, e.getMessage());
+        }
+    }
+
+    private static void completeFlush(PendingBid bid, RuntimeException failure) {
+        if (bid.flushed() == null) {
+            return;
+        }
+        if (failure == null) {
+            bid.flushed().complete(null);
+        } else {
+            bid.flushed().completeExceptionally(failure);
+        }
+    }
+
+    /**
+     * Записывает ставки из журнала, пока он не дочитан. Пакет, который не удалось записать,
+     * читается повторно; при остановке он остается в журнале до следующего запуска.
+     */
+    private void journalLoop() {
+        long flushIntervalMillis = properties.getFlushInterval().toMillis();
+        while (true) {
+            List<PendingBid> batch;
+            try {
+                batch = journal.poll(properties.getBatchSize(), flushIntervalMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.error("Поток записи ставок из журнала прерван");
+                return;
+            }
+            if (batch.isEmpty()) {
+                if (!running) {
+                    return;
+                }
+                continue;
+            }
+            if (applyJournal(batch)) {
+                journal.acknowledge();
+                continue;
+            }
+            if (!running) {
+                logger.warn("Ставки из журнала, начиная с номера {}, будут записаны в БД после перезапуска", batch.get(0).sequence());
+                return;
+            }
+            try {
+                Thread.sleep(flushIntervalMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Если БД отклоняет пакет из-за нарушения ограничений, ставки записываются по одной,
+     * а отклоненные переносятся в bid_dead_letter. Остальные ошибки считаются временными,
+     * и пакет читается повторно.
+     *
+     * @return false, если пакет нужно повторить
+     */
+    private boolean applyJournal(List<PendingBid> batch) {
+        try {
+            writeJournalBatch(batch);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("БД отклонила пакет из {} ставок журнала, ставки записываются по одной: {}", batch.size(),
+                    e.getMostSpecificCause().getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Ошибка записи ставок из журнала в БД: {}", e.getMessage());
+            return false;
+        }
+        for (PendingBid bid : batch) {
+            try {
+                writeJournalBatch(List.of(bid));
+            } catch (DataIntegrityViolationException e) {
+                if (!deadLetterJournalBid(bid, e.getMostSpecificCause().getMessage())) {
+                    return false;
+                }
+            } catch (RuntimeException e) {
+                logger.error("Ошибка записи ставки {} из журнала в БД: {}", bid.sequence(), e.getMessage());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Ставки с номером не больше записанного для узла уже есть в БД: пакет мог быть записан
+     * перед сбоем, но не подтвержден в журнале.
+     */
+    private void writeJournalBatch(List<PendingBid> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            long applied = checkpointRepository.lockApplied(journalNodeId);
+            List<PendingBid> pending = batch.stream().filter(bid -> bid.sequence() > applied).toList();
+            if (pending.isEmpty()) {
+                return;
+            }
+            for (PendingBid bid : saveForStartedLots(pending, journalNodeId)) {
+                logger.warn("Ставка {} по лоту {} из журнала не записана: лот остановлен или закрыт", bid.sequence(), bid.lotId());
+            }
+            checkpointRepository.updateApplied(journalNodeId, pending.get(pending.size() - 1).sequence());
+        });
+    }
+
+    /**
+     * Переносит отклоненную ставку в bid_dead_letter и сдвигает номер записанных ставок узла за нее.
+     */
+    private boolean deadLetterJournalBid(PendingBid bid, String reason) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (bid.sequence() > checkpointRepository.lockApplied(journalNodeId)) {
+                    deadLetterRepository.save(bid, journalNodeId, reason);
+                    checkpointRepository.updateApplied(journalNodeId, bid.sequence());
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.error("Не удалось перенести ставку {} из журнала в bid_dead_letter: {}", bid.sequence(), e.getMessage());
+            return false;
+        }
+        logger.error("Ставка {} по лоту {} отклонена БД и перенесена в bid_dead_letter: {}", bid.sequence(), bid.lotId(), reason);
+        return true;
+    }
+
+    private void openJournal() {
+        journalNodeId = properties.getJournalNodeId().isBlank() ? localHostName() : properties.getJournalNodeId();
+        long applied = checkpointRepository.findApplied(journalNodeId);
+        try {
+            journal = BidJournal.open(Path.of(properties.getJournalDirectory()), (int) properties.getJournalSegmentSize().toBytes(),
+                    properties.isJournalDeleteApplied(), applied);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть журнал ставок " + properties.getJournalDirectory(), e);
+        }
+    }
+
+    private static String localHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("Не удалось определить имя хоста, задайте auction.ingest.journal-node-id", e);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (properties.getAckMode() == IngestAckMode.JOURNAL) {
+            openJournal();
+        }
+        running = true;
+        writer = new Thread(journal != null ? this::journalLoop : this::writeLoop, "bid-ingest-writer");
+        writer.start();
+        logger.info("Запущен быстрый прием ставок, режим подтверждения: {}", properties.getAckMode());
+    }
+
+    @Override
+    public void stop() {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Override
+    public int getPhase() {
+        // останавливается после веб-сервера, чтобы дописать очередь, когда новые ставки уже не поступают
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private static final class LiveLot {
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile boolean open = true;
+        private long closeAt;
+
+        private LiveLot(long closeAt) {
+            this.closeAt = closeAt;
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package com.example.auction.ingest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Локальный журнал принятых ставок: последовательность отображаемых в память сегментов
+ * фиксированного размера. Сегмент называется по номеру своей первой ставки.
+ * <pre>
+ * запись: длина данных (int), CRC32 данных (int),
+ *         данные: номер ставки (long), id лота (int), время ставки (long), имя участника (UTF-8)
+ * </pre>
+ * Нулевая длина означает конец записей сегмента. Отдельный поток сбрасывает на диск все записи,
+ * добавленные с прошлого сброса, одним fsync (групповая фиксация), после чего ставки считаются
+ * подтвержденными. Читать журнал может только один поток.
+ */
+final class BidJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BidJournal.class);
+
+    private static final int HEADER_SIZE = 8;
+    private static final int FIXED_DATA_SIZE = 20;
+    private static final String SEGMENT_PREFIX = "bids-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean deleteApplied;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Condition appended = appendLock.newCondition();
+    // ожидание сброса на диск без synchronized: виртуальные потоки запросов не закрепляются за потоком-носителем
+    private final ReentrantLock durableLock = new ReentrantLock();
+    private final Condition durableChanged = durableLock.newCondition();
+    private final Thread committer;
+    private Segment active;
+    private long nextSequence;
+    private boolean closed;
+    private volatile boolean failed;
+    private volatile DurableMark durable;
+
+    // состояние чтения, только для потока-читателя
+    private final long skipThrough;
+    private Segment readSegment;
+    private int readPosition;
+    private Segment polledSegment;
+    private int polledPosition;
+
+    private BidJournal(Path directory, int segmentSize, boolean deleteApplied, long appliedSequence) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.deleteApplied = deleteApplied;
+        this.skipThrough = appliedSequence;
+        this.committer = new Thread(this::commitLoop, "bid-journal-committer");
+        this.committer.setDaemon(true);
+    }
+
+    /**
+     * Открывает журнал и восстанавливает сегменты, оставшиеся после предыдущего запуска.
+     * Запись, оборванная сбоем, и все после нее отбрасываются. Ставки с номерами
+     * не больше {@code appliedSequence} уже записаны в БД и при чтении пропускаются.
+     */
+    static BidJournal open(Path directory, int segmentSize, boolean deleteApplied, long appliedSequence) throws IOException {
+        Files.createDirectories(directory);
+        BidJournal journal = new BidJournal(directory, segmentSize, deleteApplied, appliedSequence);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(BidJournal::isSegmentFile).sorted().toList();
+        }
+        long lastSequence = 0;
+        int recovered = 0;
+        for (Path file : files) {
+            Segment segment = Segment.map(file, firstSequence(file), segmentSize);
+            lastSequence = segment.recover(lastSequence);
+            recovered += segment.records;
+            journal.segments.put(segment.firstSequence, segment);
+        }
+        journal.nextSequence = Math.max(lastSequence, appliedSequence) + 1;
+        if (journal.segments.isEmpty()) {
+            journal.active = journal.createSegment(journal.nextSequence);
+        } else {
+            journal.active = journal.segments.lastEntry().getValue();
+        }
+        journal.active.buffer.force();
+        journal.durable = new DurableMark(journal.nextSequence - 1, journal.active.firstSequence, journal.active.writePosition);
+        journal.readSegment = journal.segments.firstEntry().getValue();
+        journal.committer.start();
+        logger.info("Журнал ставок {} открыт: сегментов {}, записей {}, уже записаны в БД ставки до {}",
+                directory, journal.segments.size(), recovered, appliedSequence);
+        return journal;
+    }
+
+    /**
+     * Добавляет ставку в журнал; на диск она попадет со следующей групповой фиксацией.
+     *
+     * @return номер ставки в журнале
+     */
+    long append(int lotId, String bidderName, Timestamp bidTime) {
+        byte[] name = bidderName.getBytes(StandardCharsets.UTF_8);
+        byte[] data = new byte[FIXED_DATA_SIZE + name.length];
+        CRC32 crc = new CRC32();
+        appendLock.lock();
+        try {
+            if (closed || failed) {
+                throw new IllegalStateException("Журнал ставок закрыт");
+            }
+            long sequence = nextSequence;
+            ByteBuffer.wrap(data).putLong(sequence).putInt(lotId).putLong(bidTime.getTime()).put(name);
+            crc.update(data);
+            if (active.writePosition + HEADER_SIZE + data.length > active.buffer.capacity()) {
+                roll(sequence);
+            }
+            int position = active.writePosition;
+            active.buffer.put(position + HEADER_SIZE, data);
+            active.buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+            active.buffer.putInt(position, data.length);
+            active.writePosition = position + HEADER_SIZE + data.length;
+            nextSequence++;
+            appended.signal();
+            return sequence;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Ждет, пока ставка с номером {@code sequence} будет сброшена на диск.
+     *
+     * @return false, если время ожидания вышло или сброс на диск не удался
+     */
+    boolean awaitDurable(long sequence, long timeoutMillis) throws InterruptedException {
+        if (durable.sequence() >= sequence) {
+            return true;
+        }
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        durableLock.lock();
+        try {
+            while (durable.sequence() < sequence) {
+                if (failed || remaining <= 0) {
+                    return false;
+                }
+                remaining = durableChanged.awaitNanos(remaining);
+            }
+        } finally {
+            durableLock.unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Читает до {@code maxBids} сброшенных на диск ставок после последнего подтвержденного чтения,
+     * при их отсутствии ждет не дольше {@code timeoutMillis}. Прочитанное возвращается повторно,
+     * пока не вызван {@link #acknowledge()}.
+     */
+    List<PendingBid> poll(int maxBids, long timeoutMillis) throws InterruptedException {
+        DurableMark mark = durable;
+        List<PendingBid> bids = read(mark, maxBids);
+        if (bids.isEmpty()) {
+            durableLock.lock();
+            try {
+                if (durable == mark) {
+                    durableChanged.await(Math.max(1, timeoutMillis), TimeUnit.MILLISECONDS);
+                }
+            } finally {
+                durableLock.unlock();
+            }
+            bids = read(durable, maxBids);
+        }
+        return bids;
+    }
+
+    private List<PendingBid> read(DurableMark mark, int maxBids) {
+        List<PendingBid> bids = new ArrayList<>(Math.min(maxBids, 1024));
+        Segment segment = readSegment;
+        int position = readPosition;
+        while (bids.size() < maxBids && segment.firstSequence <= mark.segmentFirstSequence()) {
+            int limit = segment.firstSequence == mark.segmentFirstSequence() ? mark.position() : segment.buffer.capacity();
+            int length = position + HEADER_SIZE <= limit ? segment.buffer.getInt(position) : 0;
+            if (length == 0) {
+                Map.Entry<Long, Segment> next = segments.higherEntry(segment.firstSequence);
+                if (next == null || segment.firstSequence == mark.segmentFirstSequence()) {
+                    break;
+                }
+                segment = next.getValue();
+                position = 0;
+                continue;
+            }
+            ByteBuffer buffer = segment.buffer;
+            int data = position + HEADER_SIZE;
+            long sequence = buffer.getLong(data);
+            if (sequence > skipThrough) {
+                byte[] name = new byte[length - FIXED_DATA_SIZE];
+                buffer.get(data + FIXED_DATA_SIZE, name);
+                bids.add(new PendingBid(sequence, buffer.getInt(data + 8), new String(name, StandardCharsets.UTF_8),
+                        new Timestamp(buffer.getLong(data + 12)), null));
+            }
+            position = data + length;
+        }
+        polledSegment = segment;
+        polledPosition = position;
+        if (bids.isEmpty()) {
+            // пропущены только уже записанные в БД ставки
+            acknowledge();
+        }
+        return bids;
+    }
+
+    /**
+     * Подтверждает, что ставки из последнего {@link #poll} записаны в БД. Целиком прочитанные
+     * сегменты удаляются, если журнал не хранится для аудита.
+     */
+    void acknowledge() {
+        readSegment = polledSegment;
+        readPosition = polledPosition;
+        if (deleteApplied) {
+            releaseRead();
+        }
+    }
+
+    /**
+     * Удаляет сегменты, целиком прочитанные до текущей позиции чтения.
+     */
+    private void releaseRead() {
+        for (Map.Entry<Long, Segment> entry : segments.headMap(readSegment.firstSequence).entrySet()) {
+            Segment segment = entry.getValue();
+            segments.remove(entry.getKey());
+            try {
+                segment.channel.close();
+                Files.deleteIfExists(segment.file);
+            } catch (IOException e) {
+                logger.warn("Не удалось удалить сегмент журнала ставок {}: {}", segment.file, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Перед переходом на новый сегмент текущий сбрасывается на диск целиком, поэтому
+     * групповой фиксации достаточно сбрасывать только активный сегмент.
+     */
+    private void roll(long firstSequence) {
+        active.buffer.force();
+        try {
+            active = createSegment(firstSequence);
+        } catch (IOException e) {
+            failed = true;
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Segment createSegment(long firstSequence) throws IOException {
+        Path file = directory.resolve(SEGMENT_PREFIX + String.format("%020d", firstSequence) + SEGMENT_SUFFIX);
+        Segment segment = Segment.map(file, firstSequence, segmentSize);
+        segments.put(firstSequence, segment);
+        return segment;
+    }
+
+    private void commitLoop() {
+        while (true) {
+            Segment segment;
+            DurableMark mark;
+            appendLock.lock();
+            try {
+                while (!closed && nextSequence - 1 == durable.sequence()) {
+                    appended.awaitUninterruptibly();
+                }
+                if (nextSequence - 1 == durable.sequence()) {
+                    return;
+                }
+                segment = active;
+                mark = new DurableMark(nextSequence - 1, segment.firstSequence, segment.writePosition);
+            } finally {
+                appendLock.unlock();
+            }
+            try {
+                segment.buffer.force();
+            } catch (UncheckedIOException e) {
+                logger.error("Не удалось сбросить журнал ставок на диск, прием ставок в журнал остановлен: {}", e.getMessage());
+                failed = true;
+                signalDurable(durable);
+                return;
+            }
+            signalDurable(mark);
+        }
+    }
+
+    private void signalDurable(DurableMark mark) {
+        durableLock.lock();
+        try {
+            durable = mark;
+            durableChanged.signalAll();
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    /**
+     * Сбрасывает на диск оставшиеся записи и закрывает сегменты. Новые ставки после этого не принимаются.
+     */
+    @Override
+    public void close() {
+        appendLock.lock();
+        try {
+            closed = true;
+            appended.signalAll();
+        } finally {
+            appendLock.unlock();
+        }
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Segment segment : segments.values()) {
+            try {
+                segment.channel.close();
+            } catch (IOException e) {
+                logger.warn("Не удалось закрыть сегмент журнала ставок {}: {}", segment.file, e.getMessage());
+            }
+        }
+    }
+
+    private static boolean isSegmentFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long firstSequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Граница сброшенных на диск записей: номер последней ставки и позиция после нее в сегменте.
+     */
+    private record DurableMark(long sequence, long segmentFirstSequence, int position) {
+    }
+
+    private static final class Segment {
+        private final Path file;
+        private final long firstSequence;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+        private int records;
+
+        private Segment(Path file, long firstSequence, FileChannel channel, MappedByteBuffer buffer) {
+            this.file = file;
+            this.firstSequence = firstSequence;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        private static Segment map(Path file, long firstSequence, int segmentSize) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = Math.max(channel.size(), segmentSize);
+            return new Segment(file, firstSequence, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        /**
+         * Находит конец целых записей и обнуляет остаток сегмента после оборванной записи.
+         *
+         * @return номер последней целой ставки
+         */
+        private long recover(long lastSequence) {
+            int position = 0;
+            CRC32 crc = new CRC32();
+            while (position + HEADER_SIZE <= buffer.capacity()) {
+                int length = buffer.getInt(position);
+                if (length < FIXED_DATA_SIZE || position + HEADER_SIZE + length > buffer.capacity()) {
+                    break;
+                }
+                crc.reset();
+                crc.update(buffer.slice(position + HEADER_SIZE, length));
+                long sequence = buffer.getLong(position + HEADER_SIZE);
+                if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES) || sequence <= lastSequence) {
+                    break;
+                }
+                lastSequence = sequence;
+                position += HEADER_SIZE + length;
+                records++;
+            }
+            writePosition = position;
+            if (position + Integer.BYTES <= buffer.capacity() && buffer.getInt(position) != 0) {
+                logger.warn("Сегмент журнала ставок {} оборван после {} записей, остаток отброшен", file, records);
+                for (int offset = position; offset < buffer.capacity(); offset++) {
+                    buffer.put(offset, (byte) 0);
+                }
+            }
+            return lastSequence;
+        }
+    }
+}
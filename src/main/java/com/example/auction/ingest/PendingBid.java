@@ -0,0 +1,18 @@
+package com.example.auction.ingest;
+
+import com.example.auction.event.BidsPlacedEvent;
+
+import java.sql.Timestamp;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Принятая, но еще не записанная в БД ставка.
+ * {@code flushed} заполняется только в режиме подтверждения после записи.
+ */
+public record PendingBid(long sequence, int lotId, String bidderName, Timestamp bidTime,
+                         CompletableFuture<Void> flushed) {
+
+    public BidsPlacedEvent.PlacedBid toPlacedBid() {
+        return new BidsPlacedEvent.PlacedBid(lotId, bidderName, bidTime);
+    }
+}
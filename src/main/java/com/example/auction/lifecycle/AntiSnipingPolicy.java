@@ -0,0 +1,46 @@
+package com.example.auction.lifecycle;
+
+import com.example.auction.config.LotLifecycleProperties;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+
+/**
+ * Продление торгов при ставке незадолго до закрытия. Граница и новое время закрытия
+ * передаются в UPDATE агрегатов лота, поэтому продление происходит в той же строке и транзакции, что и ставка.
+ */
+@Component
+public class AntiSnipingPolicy {
+
+    private static final Timestamp NEVER = new Timestamp(0);
+
+    private final long windowMillis;
+    private final long extensionMillis;
+
+    public AntiSnipingPolicy(LotLifecycleProperties properties) {
+        this.windowMillis = properties.getAntiSnipingWindow().toMillis();
+        // продление не может сократить торги
+        this.extensionMillis = Math.max(windowMillis, properties.getAntiSnipingExtension().toMillis());
+    }
+
+    /**
+     * Закрытие раньше этого времени продлевается ставкой, сделанной в момент {@code bidTime}.
+     */
+    public Timestamp extensionEdge(Timestamp bidTime) {
+        return windowMillis == 0 ? NEVER : new Timestamp(bidTime.getTime() + windowMillis);
+    }
+
+    public Timestamp extendedCloseAt(Timestamp bidTime) {
+        return new Timestamp(bidTime.getTime() + extensionMillis);
+    }
+
+    /**
+     * То же правило для времени закрытия, хранящегося в памяти.
+     */
+    public long extend(long closeAtMillis, long bidTimeMillis) {
+        if (windowMillis == 0 || closeAtMillis >= bidTimeMillis + windowMillis) {
+            return closeAtMillis;
+        }
+        return bidTimeMillis + extensionMillis;
+    }
+}
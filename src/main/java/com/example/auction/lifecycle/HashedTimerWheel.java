@@ -0,0 +1,108 @@
+package com.example.auction.lifecycle;
+
+import com.example.auction.enums.LotTransition;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Хешированное колесо таймеров: постановка за O(1), срабатывание с точностью до тика.
+ * Сроки дальше одного оборота колеса хранятся в той же ячейке с числом оставшихся оборотов.
+ * Ставить таймеры можно из любого потока, продвигает колесо один поток.
+ */
+final class HashedTimerWheel {
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<Timeout>[] buckets;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final long startNanos;
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    HashedTimerWheel(Duration tickDuration, int wheelSize) {
+        int length = 1;
+        while (length < wheelSize) {
+            length <<= 1;
+        }
+        this.tickNanos = Math.max(1, tickDuration.toNanos());
+        this.mask = length - 1;
+        this.buckets = new List[length];
+        for (int i = 0; i < length; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        this.startNanos = System.nanoTime();
+    }
+
+    void schedule(int lotId, LotTransition transition, long delayMillis) {
+        long deadline = System.nanoTime() - startNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+        pending.add(new Timeout(lotId, transition, deadline));
+        size.incrementAndGet();
+    }
+
+    /**
+     * Продвигает колесо до текущего момента и передает сработавшие таймеры.
+     */
+    void advance(Consumer<Timeout> expired) {
+        long target = (System.nanoTime() - startNanos) / tickNanos;
+        while (tick <= target) {
+            transferPending();
+            List<Timeout> bucket = buckets[(int) (tick & mask)];
+            for (int i = bucket.size() - 1; i >= 0; i--) {
+                Timeout timeout = bucket.get(i);
+                if (timeout.remainingRounds > 0) {
+                    timeout.remainingRounds--;
+                    continue;
+                }
+                // порядок в ячейке не важен: удаляем перестановкой последнего элемента
+                bucket.set(i, bucket.get(bucket.size() - 1));
+                bucket.remove(bucket.size() - 1);
+                size.decrementAndGet();
+                expired.accept(timeout);
+            }
+            tick++;
+        }
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            // округление вверх: таймер не срабатывает раньше срока
+            long dueTick = Math.max(tick, (timeout.deadlineNanos + tickNanos - 1) / tickNanos);
+            timeout.remainingRounds = (dueTick - tick) / buckets.length;
+            buckets[(int) (dueTick & mask)].add(timeout);
+        }
+    }
+
+    static final class Timeout {
+        private final int lotId;
+        private final LotTransition transition;
+        private final long deadlineNanos;
+        private long remainingRounds;
+
+        private Timeout(int lotId, LotTransition transition, long deadlineNanos) {
+            this.lotId = lotId;
+            this.transition = transition;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        int lotId() {
+            return lotId;
+        }
+
+        LotTransition transition() {
+            return transition;
+        }
+    }
+}
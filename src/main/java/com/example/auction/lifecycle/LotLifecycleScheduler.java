@@ -0,0 +1,239 @@
+package com.example.auction.lifecycle;
+
+import com.example.auction.config.LotLifecycleProperties;
+import com.example.auction.dto.LotDeadline;
+import com.example.auction.enums.LotStatus;
+import com.example.auction.enums.LotTransition;
+import com.example.auction.event.LotStatusChangedEvent;
+import com.example.auction.event.LotsImportedEvent;
+import com.example.auction.ingest.BidIngestEngine;
+import com.example.auction.repository.LotScheduleRepository;
+import com.example.auction.utilities.ServiceUtilities;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Автоматическое открытие и закрытие торгов. Сроки лотов хранятся в колесе таймеров;
+ * на каждом тике наступившие сроки объединяются в пакетные UPDATE. При старте расписание
+ * восстанавливается из БД постранично. Сроки, которые изменились после постановки таймера
+ * (например, закрытие продлено ставкой), перечитываются из БД и ставятся заново.
+ */
+@Component
+public class LotLifecycleScheduler implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LotLifecycleScheduler.class);
+
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    private final LotLifecycleProperties properties;
+    private final LotScheduleRepository lotScheduleRepository;
+    private final BidIngestEngine bidIngestEngine;
+    private final ServiceUtilities serviceUtilities;
+    private final ApplicationEventPublisher eventPublisher;
+    private final HashedTimerWheel wheel;
+    private final Map<LotTransition, Queue<Integer>> lookups = new EnumMap<>(LotTransition.class);
+    private ScheduledExecutorService ticker;
+    private volatile boolean running;
+
+    public LotLifecycleScheduler(LotLifecycleProperties properties, LotScheduleRepository lotScheduleRepository,
+                                 BidIngestEngine bidIngestEngine, ServiceUtilities serviceUtilities,
+                                 ApplicationEventPublisher eventPublisher) {
+        this.properties = properties;
+        this.lotScheduleRepository = lotScheduleRepository;
+        this.bidIngestEngine = bidIngestEngine;
+        this.serviceUtilities = serviceUtilities;
+        this.eventPublisher = eventPublisher;
+        this.wheel = new HashedTimerWheel(properties.getTick(), properties.getWheelSize());
+        for (LotTransition transition : LotTransition.values()) {
+            lookups.put(transition, new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    /**
+     * Новый лот может ждать открытия, открытый - закрытия. Сами сроки читаются
+     * из БД пакетом на ближайшем тике, а не в потоке, изменившем статус.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLotStatusChanged(LotStatusChangedEvent event) {
+        if (!running) {
+            return;
+        }
+        if (event.from() == null && event.to() == LotStatus.CREATED) {
+            lookups.get(LotTransition.OPEN).add(event.lotId());
+        } else if (event.to() == LotStatus.STARTED) {
+            lookups.get(LotTransition.CLOSE).add(event.lotId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLotsImported(LotsImportedEvent event) {
+        if (running) {
+            lookups.get(LotTransition.OPEN).addAll(event.scheduledLotIds());
+        }
+    }
+
+    private void restore() {
+        long started = System.nanoTime();
+        int restored = 0;
+        for (LotTransition transition : LotTransition.values()) {
+            int afterId = 0;
+            List<LotDeadline> page;
+            do {
+                page = lotScheduleRepository.findDeadlinesAfter(transition, afterId, properties.getRestorePageSize());
+                schedule(transition, page);
+                restored += page.size();
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).lotId();
+                }
+            } while (page.size() == properties.getRestorePageSize());
+        }
+        logger.info("Восстановлено расписание лотов: {} сроков за {} мс", restored,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private void tick() {
+        try {
+            for (LotTransition transition : LotTransition.values()) {
+                List<Integer> lotIds = drain(lookups.get(transition));
+                for (List<Integer> chunk : chunks(lotIds)) {
+                    schedule(transition, lotScheduleRepository.findDeadlines(transition, chunk));
+                }
+            }
+            Map<LotTransition, List<Integer>> due = new EnumMap<>(LotTransition.class);
+            wheel.advance(timeout -> due.computeIfAbsent(timeout.transition(), t -> new ArrayList<>()).add(timeout.lotId()));
+            due.forEach((transition, lotIds) -> chunks(lotIds).forEach(chunk -> applyDue(transition, chunk)));
+        } catch (RuntimeException e) {
+            logger.error("Ошибка обработки расписания лотов: {}", e.getMessage());
+        }
+    }
+
+    private void applyDue(LotTransition transition, List<Integer> lotIds) {
+        if (transition == LotTransition.CLOSE) {
+            lotIds = closeIngest(lotIds);
+            if (lotIds.isEmpty()) {
+                return;
+            }
+        }
+        List<Integer> changed;
+        try {
+            changed = lotScheduleRepository.applyDue(transition, lotIds, serviceUtilities.currentBidTime());
+        } catch (RuntimeException e) {
+            logger.error("Не удалось изменить статус {} лотов по расписанию: {}", lotIds.size(), e.getMessage());
+            lotIds.forEach(lotId -> wheel.schedule(lotId, transition, RETRY_DELAY_MILLIS));
+            return;
+        }
+        for (int lotId : changed) {
+            eventPublisher.publishEvent(new LotStatusChangedEvent(lotId, transition.from(), transition.to()));
+        }
+        if (changed.size() < lotIds.size()) {
+            Set<Integer> unchanged = new HashSet<>(lotIds);
+            changed.forEach(unchanged::remove);
+            lookups.get(transition).addAll(unchanged);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Смена статуса по расписанию {}: изменено лотов {} из {}", transition, changed.size(), lotIds.size());
+        }
+    }
+
+    /**
+     * Как и при ручной остановке, прием ставок в памяти закрывается до изменения статуса в БД.
+     * Лоты, торги по которым продлены ставками, еще не записанными в БД, ставятся на продленный срок.
+     *
+     * @return лоты, которые можно закрывать в БД
+     */
+    private List<Integer> closeIngest(List<Integer> lotIds) {
+        long now = serviceUtilities.currentBidTime().getTime();
+        List<Integer> due = new ArrayList<>(lotIds.size());
+        for (int lotId : lotIds) {
+            long extendedCloseAt = bidIngestEngine.closeLotIfDue(lotId, now);
+            if (extendedCloseAt < 0) {
+                due.add(lotId);
+            } else {
+                wheel.schedule(lotId, LotTransition.CLOSE, extendedCloseAt - now);
+            }
+        }
+        return due;
+    }
+
+    private void schedule(LotTransition transition, List<LotDeadline> deadlines) {
+        long now = serviceUtilities.currentBidTime().getTime();
+        for (LotDeadline deadline : deadlines) {
+            wheel.schedule(deadline.lotId(), transition, delayMillis(deadline.at(), now));
+        }
+    }
+
+    private static long delayMillis(Timestamp at, long now) {
+        return at.getTime() - now;
+    }
+
+    private List<List<Integer>> chunks(List<Integer> lotIds) {
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int from = 0; from < lotIds.size(); from += properties.getBatchSize()) {
+            chunks.add(lotIds.subList(from, Math.min(lotIds.size(), from + properties.getBatchSize())));
+        }
+        return chunks;
+    }
+
+    private static List<Integer> drain(Queue<Integer> queue) {
+        Set<Integer> lotIds = new HashSet<>();
+        Integer lotId;
+        while ((lotId = queue.poll()) != null) {
+            lotIds.add(lotId);
+        }
+        return new ArrayList<>(lotIds);
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lot-lifecycle-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // восстановление выполняется в потоке тиков и не задерживает запуск приложения
+        ticker.execute(() -> {
+            try {
+                restore();
+            } catch (RuntimeException e) {
+                logger.error("Не удалось восстановить расписание лотов: {}", e.getMessage());
+            }
+        });
+        long tickMillis = Math.max(1, properties.getTick().toMillis());
+        ticker.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (ticker != null) {
+            ticker.shutdown();
+            ticker = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.auction.metrics;
+
+import com.example.auction.enums.LotStatus;
+import com.example.auction.event.BidsPlacedEvent;
+import com.example.auction.event.LotStatusChangedEvent;
+import com.example.auction.ingest.BidIngestEngine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Счетчики принятых ставок. Общий счетчик есть всегда; счетчик по каждому лоту включается
+ * отдельно (auction.metrics.per-lot-bids), так как число лотов не ограничено, и удаляется
+ * после окончания торгов по лоту.
+ */
+@Component
+public class BidMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final boolean perLotBids;
+    private final Counter placedBids;
+    private final Map<Integer, Counter> lotBids = new ConcurrentHashMap<>();
+
+    public BidMetrics(MeterRegistry meterRegistry, BidIngestEngine bidIngestEngine,
+                      @Value("${auction.metrics.per-lot-bids:false}") boolean perLotBids) {
+        this.meterRegistry = meterRegistry;
+        this.perLotBids = perLotBids;
+        this.placedBids = Counter.builder("auction.bids.placed")
+                .description("Принятые ставки")
+                .register(meterRegistry);
+        Gauge.builder("auction.ingest.queue.size", bidIngestEngine, BidIngestEngine::queuedBids)
+                .description("Ставки, ожидающие записи в БД")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBidsPlaced(BidsPlacedEvent event) {
+        placedBids.increment(event.bids().size());
+        if (!perLotBids) {
+            return;
+        }
+        for (BidsPlacedEvent.PlacedBid bid : event.bids()) {
+            lotBids.computeIfAbsent(bid.lotId(), lotId -> Counter.builder("auction.lot.bids.placed")
+                    .description("Принятые ставки по лоту")
+                    .tag("lot", Integer.toString(lotId))
+                    .register(meterRegistry)).increment();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLotStatusChanged(LotStatusChangedEvent event) {
+        if (event.from() == LotStatus.STARTED) {
+            Counter counter = lotBids.remove(event.lotId());
+            if (counter != null) {
+                meterRegistry.remove(counter);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.auction.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Считает SQL-запросы Hibernate, выполненные в текущем потоке между {@link #start()} и {@link #stop()}.
+ * Запросы через JdbcTemplate сюда не попадают.
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    private final ThreadLocal<int[]> counter = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = counter.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    public void start() {
+        counter.set(new int[1]);
+    }
+
+    public int stop() {
+        int[] count = counter.get();
+        counter.remove();
+        return count == null ? 0 : count[0];
+    }
+}
@@ -11,7 +11,8 @@ import java.sql.Timestamp;
 @Entity
 public class Bid {
 
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bid_id_seq")
+    @SequenceGenerator(name = "bid_id_seq", sequenceName = "bid_id_seq", allocationSize = 50)
     @Id
     @Column(name = "id")
     private int id;
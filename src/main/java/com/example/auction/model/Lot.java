@@ -3,8 +3,11 @@ package com.example.auction.model;
 import com.example.auction.enums.LotStatus;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
+import java.sql.Timestamp;
 import java.util.List;
 
 @Data
@@ -32,7 +35,37 @@ public class Lot {
     @Column(name = "bid_price")
     private int bidPrice;
 
-    @OneToMany(mappedBy = "lotByLotId", fetch = FetchType.EAGER, cascade = CascadeType.ALL, orphanRemoval = true)
+    @Column(name = "bid_count")
+    private int bidCount;
+
+    @Column(name = "current_price")
+    private int currentPrice;
+
+    @Column(name = "first_bidder_name")
+    private String firstBidderName;
+
+    @Column(name = "first_bid_time")
+    private Timestamp firstBidTime;
+
+    @Column(name = "last_bidder_name")
+    private String lastBidderName;
+
+    @Column(name = "last_bid_time")
+    private Timestamp lastBidTime;
+
+    @Column(name = "open_at")
+    private Timestamp openAt;
+
+    @Column(name = "close_at")
+    private Timestamp closeAt;
+
+    @Version
+    @Column(name = "version")
+    private long version;
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @OneToMany(mappedBy = "lotByLotId", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Bid> bidsById;
 
 }
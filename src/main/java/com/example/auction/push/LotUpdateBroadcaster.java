@@ -0,0 +1,272 @@
+package com.example.auction.push;
+
+import com.example.auction.config.LotPushProperties;
+import com.example.auction.dto.FullLotDTO;
+import com.example.auction.dto.LotUpdateDTO;
+import com.example.auction.event.BidsPlacedEvent;
+import com.example.auction.event.LotStatusChangedEvent;
+import com.example.auction.event.RemoteLotsChangedEvent;
+import com.example.auction.service.AuctionService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Рассылка изменений цены и последней ставки подписчикам лота.
+ * Изменения лота накапливаются в течение окна и кодируются в JSON один раз на окно,
+ * независимо от числа подписчиков. Медленный подписчик получает только последнее состояние.
+ * <p>
+ * <p>
+ * У подписчика не больше одного ожидающего сообщения и не больше одной задачи отправки.
+ * Отправка в SseEmitter блокирует поток до записи в сокет, поэтому задачи идут в пул из
+ * {@code auction.push.send-threads} потоков с очередью {@code auction.push.send-queue-capacity}
+ * (на виртуальных потоках, если они включены). Подписчик, задача которого не помещается в очередь,
+ * отключается; подписчик, отправка которому длится дольше {@code auction.push.send-timeout},
+ * отписывается и больше не получает сообщений.
+ */
+@Component
+public class LotUpdateBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(LotUpdateBroadcaster.class);
+
+    private final AuctionService auctionService;
+    private final ObjectMapper objectMapper;
+    private final LotPushProperties properties;
+    private final Map<Integer, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Set<Integer> dirtyLots = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(daemonThreads("lot-push-ticker"));
+    private final Executor senders;
+
+    public LotUpdateBroadcaster(AuctionService auctionService, ObjectMapper objectMapper, LotPushProperties properties,
+                                Environment environment) {
+        this.auctionService = auctionService;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.senders = senders(properties, environment);
+        long windowMillis = properties.getCoalesceWindow().toMillis();
+        ticker.scheduleWithFixedDelay(this::publishDirtyLots, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+        long sendTimeoutMillis = properties.getSendTimeout().toMillis();
+        ticker.scheduleWithFixedDelay(this::dropStuckSubscribers, sendTimeoutMillis, sendTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Подписывает клиента на изменения лота. Первым сообщением отправляется текущее состояние.
+     */
+    public SseEmitter subscribe(int lotId, FullLotDTO current) {
+        SseEmitter emitter = new SseEmitter(properties.getSubscriptionTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(lotId, emitter);
+        subscribers.compute(lotId, (id, lotSubscribers) -> {
+            Set<Subscriber> result = lotSubscribers != null ? lotSubscribers : ConcurrentHashMap.newKeySet();
+            result.add(subscriber);
+            return result;
+        });
+        Runnable remove = () -> unsubscribe(lotId, subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+        String payload = encode(current);
+        if (payload != null) {
+            subscriber.offer(payload);
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBidsPlaced(BidsPlacedEvent event) {
+        event.lotIds().forEach(this::markDirty);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLotStatusChanged(LotStatusChangedEvent event) {
+        markDirty(event.lotId());
+    }
+
+    @EventListener
+    public void onRemoteLotsChanged(RemoteLotsChangedEvent event) {
+        event.lotIds().forEach(this::markDirty);
+    }
+
+    private void markDirty(int lotId) {
+        if (subscribers.containsKey(lotId)) {
+            dirtyLots.add(lotId);
+        }
+    }
+
+    private void publishDirtyLots() {
+        if (dirtyLots.isEmpty()) {
+            return;
+        }
+        List<Integer> lotIds = new ArrayList<>(dirtyLots);
+        dirtyLots.removeAll(lotIds);
+        for (int lotId : lotIds) {
+            Set<Subscriber> lotSubscribers = subscribers.get(lotId);
+            if (lotSubscribers == null || lotSubscribers.isEmpty()) {
+                continue;
+            }
+            try {
+                String payload = encode(auctionService.getFullLotById(lotId));
+                if (payload != null) {
+                    lotSubscribers.forEach(subscriber -> subscriber.offer(payload));
+                }
+            } catch (RuntimeException e) {
+                logger.error("Не удалось разослать изменения лота {}: {}", lotId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Отписывает подписчиков, отправка которым не завершилась за send-timeout. Завершить emitter
+     * здесь нельзя: он занят зависшей отправкой, поэтому его завершает поток отправки, когда она закончится.
+     */
+    private void dropStuckSubscribers() {
+        long deadline = System.nanoTime() - properties.getSendTimeout().toNanos();
+        subscribers.forEach((lotId, lotSubscribers) -> lotSubscribers.forEach(subscriber -> {
+            if (subscriber.stuckSince(deadline)) {
+                subscriber.dropped = true;
+                unsubscribe(lotId, subscriber);
+                logger.warn("Подписчик лота {} отписан: отправка длится дольше {}", lotId, properties.getSendTimeout());
+            }
+        }));
+    }
+
+    private String encode(FullLotDTO fullLotDTO) {
+        LotUpdateDTO update = new LotUpdateDTO();
+        update.setId(fullLotDTO.getId());
+        update.setStatus(fullLotDTO.getStatus());
+        update.setCurrentPrice(fullLotDTO.getCurrentPrice());
+        update.setLastBid(fullLotDTO.getLastBid());
+        try {
+            return objectMapper.writeValueAsString(update);
+        } catch (JsonProcessingException e) {
+            logger.error("Ошибка сериализации изменений лота {}: {}", fullLotDTO.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void unsubscribe(int lotId, Subscriber subscriber) {
+        subscribers.computeIfPresent(lotId, (id, lotSubscribers) -> {
+            lotSubscribers.remove(subscriber);
+            return lotSubscribers.isEmpty() ? null : lotSubscribers;
+        });
+    }
+
+    private static Executor senders(LotPushProperties properties, Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("lot-push-sender-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+        return new ThreadPoolExecutor(properties.getSendThreads(), properties.getSendThreads(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getSendQueueCapacity()), daemonThreads("lot-push-sender"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+        if (senders instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        } else if (senders instanceof SimpleAsyncTaskExecutor executor) {
+            executor.close();
+        }
+        subscribers.values().forEach(lotSubscribers -> lotSubscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Подписчик с единственным ожидающим сообщением: новое состояние заменяет неотправленное.
+     */
+    private final class Subscriber {
+        private static final long IDLE = Long.MIN_VALUE;
+
+        private final int lotId;
+        private final SseEmitter emitter;
+        private final AtomicReference<String> pending = new AtomicReference<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile long sendStarted = IDLE;
+        private volatile boolean dropped;
+
+        private Subscriber(int lotId, SseEmitter emitter) {
+            this.lotId = lotId;
+            this.emitter = emitter;
+        }
+
+        private boolean stuckSince(long deadline) {
+            long started = sendStarted;
+            return started != IDLE && started - deadline < 0;
+        }
+
+        private void offer(String payload) {
+            if (dropped) {
+                return;
+            }
+            pending.set(payload);
+            if (sending.compareAndSet(false, true)) {
+                schedule();
+            }
+        }
+
+        /**
+         * Вызывается, когда флаг sending уже захвачен.
+         */
+        private void schedule() {
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // очередь отправки заполнена или рассылка остановлена: подписчик отключается, emitter не занят отправкой
+                dropped = true;
+                sending.set(false);
+                unsubscribe(lotId, this);
+                emitter.complete();
+                logger.warn("Подписчик лота {} отключен: очередь отправки заполнена", lotId);
+            }
+        }
+
+        private void drain() {
+            try {
+                String payload;
+                while (!dropped && (payload = pending.getAndSet(null)) != null) {
+                    sendStarted = System.nanoTime();
+                    emitter.send(SseEmitter.event().name("lot").data(payload, MediaType.APPLICATION_JSON));
+                    sendStarted = IDLE;
+                }
+                if (dropped) {
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            } finally {
+                sendStarted = IDLE;
+                sending.set(false);
+            }
+            if (!dropped && pending.get() != null && sending.compareAndSet(false, true)) {
+                schedule();
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.auction.repository;
+
+import com.example.auction.dto.BidMinuteCount;
+import com.example.auction.dto.BidderStats;
+import com.example.auction.dto.LotStatusStats;
+import com.example.auction.enums.LotStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Сводные таблицы статистики. Триггеры на lot и bid пишут агрегированные изменения в журналы
+ * stats_lot_log и stats_bid_log, а {@link #fold(int)} переносит их в сводки без просмотра lot и bid.
+ */
+@Repository
+public class AuctionStatsRepository {
+
+    /**
+     * Свертку выполняет один узел за раз; остальные пропускают интервал, а не ждут блокировки.
+     */
+    private static final String TRY_LOCK = "SELECT pg_try_advisory_xact_lock(hashtext('auction_stats_fold'))";
+
+    private static final String FOLD = """
+            WITH lot_changes AS (
+                     DELETE FROM stats_lot_log WHERE id IN (SELECT id FROM stats_lot_log ORDER BY id LIMIT ?)
+                     RETURNING status, lot_count, turnover),
+                 bid_changes AS (
+                     DELETE FROM stats_bid_log WHERE id IN (SELECT id FROM stats_bid_log ORDER BY id LIMIT ?)
+                     RETURNING bidder_name, minute, bid_count, last_bid_time),
+                 lots AS (
+                     INSERT INTO lot_status_stats AS s (status, lot_count, turnover)
+                     SELECT status, sum(lot_count), sum(turnover) FROM lot_changes GROUP BY status
+                     ON CONFLICT (status) DO UPDATE
+                     SET lot_count = s.lot_count + excluded.lot_count, turnover = s.turnover + excluded.turnover),
+                 bidders AS (
+                     INSERT INTO bidder_stats AS s (bidder_name, bid_count, last_bid_time)
+                     SELECT bidder_name, sum(bid_count), max(last_bid_time) FROM bid_changes GROUP BY bidder_name
+                     ON CONFLICT (bidder_name) DO UPDATE
+                     SET bid_count = s.bid_count + excluded.bid_count,
+                         last_bid_time = greatest(s.last_bid_time, excluded.last_bid_time)),
+                 minutes AS (
+                     INSERT INTO bid_minute_stats AS s (minute, bid_count)
+                     SELECT minute, sum(bid_count) FROM bid_changes GROUP BY minute
+                     ON CONFLICT (minute) DO UPDATE SET bid_count = s.bid_count + excluded.bid_count)
+            SELECT (SELECT count(*) FROM lot_changes) + (SELECT count(*) FROM bid_changes)""";
+
+    private static final String DELETE_MINUTES_BEFORE = "DELETE FROM bid_minute_stats WHERE minute < ?";
+
+    private static final String FIND_STATUS_STATS = "SELECT status, lot_count, turnover FROM lot_status_stats";
+
+    private static final String FIND_TOP_BIDDERS = """
+            SELECT bidder_name, bid_count, last_bid_time FROM bidder_stats
+            ORDER BY bid_count DESC, bidder_name LIMIT ?""";
+
+    private static final String FIND_MINUTES_SINCE = "SELECT minute, bid_count FROM bid_minute_stats WHERE minute >= ? ORDER BY minute";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AuctionStatsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Вызывается в транзакции перед {@link #fold(int)}.
+     *
+     * @return false, если свертку сейчас выполняет другой узел
+     */
+    public boolean tryLockFold() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK, Boolean.class));
+    }
+
+    /**
+     * Сворачивает до {@code batchSize} записей каждого журнала.
+     *
+     * @return число свернутых записей
+     */
+    public long fold(int batchSize) {
+        Long folded = jdbcTemplate.queryForObject(FOLD, Long.class, batchSize, batchSize);
+        return folded == null ? 0 : folded;
+    }
+
+    public int deleteMinutesBefore(Timestamp before) {
+        return jdbcTemplate.update(DELETE_MINUTES_BEFORE, before);
+    }
+
+    public List<LotStatusStats> findStatusStats() {
+        return jdbcTemplate.query(FIND_STATUS_STATS, (rs, rowNum) -> new LotStatusStats(
+                LotStatus.values()[rs.getInt("status")], rs.getLong("lot_count"), rs.getLong("turnover")));
+    }
+
+    public List<BidderStats> findTopBidders(int limit) {
+        return jdbcTemplate.query(FIND_TOP_BIDDERS, (rs, rowNum) -> new BidderStats(
+                rs.getString("bidder_name"), rs.getLong("bid_count"), rs.getTimestamp("last_bid_time")), limit);
+    }
+
+    public List<BidMinuteCount> findBidsPerMinuteSince(Timestamp since) {
+        return jdbcTemplate.query(FIND_MINUTES_SINCE, (rs, rowNum) -> new BidMinuteCount(
+                rs.getTimestamp("minute"), rs.getLong("bid_count")), since);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.auction.repository;
+
+import com.example.auction.enums.LotStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Архивирование ставок остановленных лотов. Методы вызываются в одной транзакции:
+ * строки лотов блокируются первыми, поэтому несколько узлов не переносят ставки одного лота дважды.
+ */
+@Repository
+public class BidArchiveRepository {
+
+    private static final String LOCK_LOTS = "SELECT id FROM lot WHERE status = " + LotStatus.STOPPED.ordinal() + """
+             AND bids_archived_at IS NULL AND bid_count > 0 AND coalesce(close_at, last_bid_time) < ?
+            ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED""";
+
+    private static final String MOVE_BIDS = """
+            WITH moved AS (DELETE FROM bid WHERE lot_id = ANY (?) RETURNING lot_id, id, bidder_name, bid_time)
+            INSERT INTO bid_archive (lot_id, id, bidder_name, bid_time)
+            SELECT lot_id, id, bidder_name, bid_time FROM moved""";
+
+    private static final String MARK_ARCHIVED = "UPDATE lot SET bids_archived_at = ? WHERE id = ANY (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BidArchiveRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Блокирует остановленные лоты со ставками, активность по которым закончилась раньше {@code inactiveSince}.
+     */
+    public List<Integer> lockLotsToArchive(Timestamp inactiveSince, int limit) {
+        return jdbcTemplate.queryForList(LOCK_LOTS, Integer.class, inactiveSince, limit);
+    }
+
+    /**
+     * @return число перенесенных ставок
+     */
+    public int moveBids(List<Integer> lotIds, Timestamp archivedAt) {
+        int moved = jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(MOVE_BIDS);
+            ps.setArray(1, con.createArrayOf("integer", lotIds.toArray()));
+            return ps;
+        });
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(MARK_ARCHIVED);
+            ps.setTimestamp(1, archivedAt);
+            ps.setArray(2, con.createArrayOf("integer", lotIds.toArray()));
+            return ps;
+        });
+        return moved;
+    }
+}
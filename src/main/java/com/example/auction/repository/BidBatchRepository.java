@@ -0,0 +1,148 @@
+package com.example.auction.repository;
+
+import com.example.auction.enums.LotStatus;
+import com.example.auction.ingest.PendingBid;
+import com.example.auction.lifecycle.AntiSnipingPolicy;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Пакетная запись ставок через JDBC. Ставки должны быть упорядочены по sequence:
+ * порядок вставки определяет первого и последнего ставившего.
+ */
+@Repository
+public class BidBatchRepository {
+
+    private static final String INSERT_BID = "INSERT INTO bid (id, bidder_name, bid_time, lot_id) VALUES (?, ?, ?, ?)";
+
+    /**
+     * bid_id_seq растет шагом 50 для оптимизатора pooled-lo у {@link com.example.auction.model.Bid}: каждое значение
+     * последовательности - начало блока из 50 номеров. Пакетная запись берет номера из таких же блоков,
+     * иначе DEFAULT nextval тратил бы 50 значений на одну ставку.
+     */
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private static final String NEXT_ID_BLOCKS = "SELECT nextval('bid_id_seq') FROM generate_series(1, ?)";
+
+    private static final String UPDATE_LOT_AGGREGATES = """
+            UPDATE lot SET bid_count = bid_count + ?,
+                current_price = current_price + ? * bid_price,
+                first_bidder_name = coalesce(first_bidder_name, ?),
+                first_bid_time = coalesce(first_bid_time, ?),
+                last_bidder_name = ?,
+                last_bid_time = ?,
+                close_at = CASE WHEN close_at < ? THEN ? ELSE close_at END,
+                version = version + 1
+            WHERE id = ?""";
+
+    private static final String UPDATE_STARTED_LOT_AGGREGATES = UPDATE_LOT_AGGREGATES + " AND status = " + LotStatus.STARTED.ordinal()
+            + " AND (close_at IS NULL OR close_at > ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AntiSnipingPolicy antiSnipingPolicy;
+
+    public BidBatchRepository(JdbcTemplate jdbcTemplate, AntiSnipingPolicy antiSnipingPolicy) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.antiSnipingPolicy = antiSnipingPolicy;
+    }
+
+    /**
+     * Обновляет агрегаты только тех лотов, которые находятся в статусе STARTED,
+     * и записывает ставки по ним. Лот, время закрытия которого уже наступило, ставки не принимает. Строки лотов остаются заблокированными до конца транзакции.
+     *
+     * @return id лотов, ставки по которым приняты
+     */
+    public Set<Integer> saveAllForStartedLots(List<PendingBid> bids) {
+        Set<Integer> acceptedLots = updateLotAggregates(bids);
+        List<PendingBid> accepted = new ArrayList<>(bids.size());
+        for (PendingBid bid : bids) {
+            if (acceptedLots.contains(bid.lotId())) {
+                accepted.add(bid);
+            }
+        }
+        insertBids(accepted);
+        return acceptedLots;
+    }
+
+    private void insertBids(List<PendingBid> bids) {
+        if (bids.isEmpty()) {
+            return;
+        }
+        List<Integer> blocks = jdbcTemplate.queryForList(NEXT_ID_BLOCKS, Integer.class,
+                (bids.size() + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE);
+        jdbcTemplate.batchUpdate(INSERT_BID, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                PendingBid bid = bids.get(i);
+                ps.setInt(1, blocks.get(i / ID_BLOCK_SIZE) + i % ID_BLOCK_SIZE);
+                ps.setString(2, bid.bidderName());
+                ps.setTimestamp(3, bid.bidTime());
+                ps.setInt(4, bid.lotId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return bids.size();
+            }
+        });
+    }
+
+    private Set<Integer> updateLotAggregates(List<PendingBid> bids) {
+        // строки лотов блокируются по возрастанию id, как и строки bid_stats после них
+        Map<Integer, LotDelta> deltas = new TreeMap<>();
+        for (PendingBid bid : bids) {
+            deltas.computeIfAbsent(bid.lotId(), id -> new LotDelta(bid)).add(bid);
+        }
+        List<Map.Entry<Integer, LotDelta>> rows = new ArrayList<>(deltas.entrySet());
+        int[][] updated = jdbcTemplate.batchUpdate(UPDATE_STARTED_LOT_AGGREGATES, rows, rows.size(), (ps, entry) -> {
+            LotDelta delta = entry.getValue();
+            ps.setInt(1, delta.count);
+            ps.setInt(2, delta.count);
+            ps.setString(3, delta.first.bidderName());
+            ps.setTimestamp(4, delta.first.bidTime());
+            ps.setString(5, delta.last.bidderName());
+            ps.setTimestamp(6, delta.last.bidTime());
+            // продление считается по последней ставке пакета
+            ps.setTimestamp(7, antiSnipingPolicy.extensionEdge(delta.last.bidTime()));
+            ps.setTimestamp(8, antiSnipingPolicy.extendedCloseAt(delta.last.bidTime()));
+            ps.setInt(9, entry.getKey());
+            ps.setTimestamp(10, delta.first.bidTime());
+        });
+        Set<Integer> updatedLots = new HashSet<>();
+        int row = 0;
+        for (int[] chunk : updated) {
+            for (int count : chunk) {
+                if (count > 0) {
+                    updatedLots.add(rows.get(row).getKey());
+                }
+                row++;
+            }
+        }
+        return updatedLots;
+    }
+
+    private static final class LotDelta {
+        private final PendingBid first;
+        private PendingBid last;
+        private int count;
+
+        private LotDelta(PendingBid first) {
+            this.first = first;
+        }
+
+        private void add(PendingBid bid) {
+            last = bid;
+            count++;
+        }
+    }
+}
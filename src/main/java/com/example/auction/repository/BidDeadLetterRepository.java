@@ -0,0 +1,31 @@
+package com.example.auction.repository;
+
+import com.example.auction.ingest.PendingBid;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Принятые ставки, которые БД окончательно отказалась записать (нарушение ограничений).
+ * Такая ставка сохраняется здесь вместе с причиной, чтобы не задерживать записанные после нее.
+ */
+@Repository
+public class BidDeadLetterRepository {
+
+    private static final String INSERT = """
+            INSERT INTO bid_dead_letter (node_id, journal_sequence, lot_id, bidder_name, bid_time, reason)
+            VALUES (?, ?, ?, ?, ?, ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BidDeadLetterRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param nodeId идентификатор журнала узла или null, если ставка пришла не из журнала
+     */
+    public void save(PendingBid bid, String nodeId, String reason) {
+        jdbcTemplate.update(INSERT, nodeId, nodeId == null ? null : bid.sequence(), bid.lotId(), bid.bidderName(),
+                bid.bidTime(), reason);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.auction.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Номер последней ставки из журнала узла, записанной в bid. Номер меняется в той же транзакции,
+ * что и запись ставок, поэтому повторное применение журнала после сбоя пропускает уже записанные ставки.
+ */
+@Repository
+public class BidJournalCheckpointRepository {
+
+    private static final String INSERT_IF_ABSENT = """
+            INSERT INTO bid_journal_checkpoint (node_id, applied_sequence) VALUES (?, 0)
+            ON CONFLICT (node_id) DO NOTHING""";
+
+    private static final String SELECT = "SELECT applied_sequence FROM bid_journal_checkpoint WHERE node_id = ?";
+
+    private static final String SELECT_FOR_UPDATE = SELECT + " FOR UPDATE";
+
+    private static final String UPDATE = "UPDATE bid_journal_checkpoint SET applied_sequence = ? WHERE node_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BidJournalCheckpointRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Создает строку узла при первом запуске.
+     */
+    public long findApplied(String nodeId) {
+        jdbcTemplate.update(INSERT_IF_ABSENT, nodeId);
+        Long applied = jdbcTemplate.queryForObject(SELECT, Long.class, nodeId);
+        return applied == null ? 0 : applied;
+    }
+
+    /**
+     * Вызывается в транзакции записи ставок; блокирует строку узла до ее конца.
+     */
+    public long lockApplied(String nodeId) {
+        Long applied = jdbcTemplate.queryForObject(SELECT_FOR_UPDATE, Long.class, nodeId);
+        return applied == null ? 0 : applied;
+    }
+
+    public void updateApplied(String nodeId, long appliedSequence) {
+        jdbcTemplate.update(UPDATE, appliedSequence, nodeId);
+    }
+}
@@ -1,7 +1,24 @@
 package com.example.auction.repository;
 
+import com.example.auction.dto.BidderStats;
 import com.example.auction.model.Bid;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
+
+/**
+ * Каждый запрос содержит условие lot_id = ?: при секционировании bid по hash(lot_id)
+ * PostgreSQL читает только одну секцию. Новые запросы должны сохранять это условие.
+ */
 public interface BidRepository extends JpaRepository<Bid, Integer> {
+
+    @Query("""
+            select new com.example.auction.dto.BidderStats(b.bidderName, count(b), max(b.bidTime))
+            from Bid b where b.lotByLotId.id = :lotId
+            group by b.bidderName
+            order by count(b) desc, max(b.bidTime) desc""")
+    List<BidderStats> findTopBidders(@Param("lotId") int lotId, Pageable pageable);
 }
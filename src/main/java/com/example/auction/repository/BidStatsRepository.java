@@ -0,0 +1,83 @@
+package com.example.auction.repository;
+
+import com.example.auction.dto.BidderStats;
+import com.example.auction.ingest.PendingBid;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Таблица лидеров по лоту: количество ставок каждого участника и время его последней ставки.
+ * Обновляется вместе со ставками в той же транзакции.
+ */
+@Repository
+public class BidStatsRepository {
+
+    private static final String UPSERT = """
+            INSERT INTO bid_stats (lot_id, bidder_name, bid_count, last_bid_time) VALUES (?, ?, ?, ?)
+            ON CONFLICT (lot_id, bidder_name) DO UPDATE
+            SET bid_count = bid_stats.bid_count + EXCLUDED.bid_count,
+                last_bid_time = greatest(bid_stats.last_bid_time, EXCLUDED.last_bid_time)""";
+
+    private static final String SELECT_TOP = """
+            SELECT bidder_name, bid_count, last_bid_time FROM bid_stats
+            WHERE lot_id = ?
+            ORDER BY bid_count DESC, last_bid_time DESC
+            LIMIT ?""";
+
+    private static final String SELECT_ALL = "SELECT bidder_name, bid_count, last_bid_time FROM bid_stats WHERE lot_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BidStatsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void increment(int lotId, String bidderName, Timestamp bidTime) {
+        jdbcTemplate.update(UPSERT, lotId, bidderName, 1, bidTime);
+    }
+
+    public void incrementAll(List<PendingBid> bids) {
+        Map<StatsKey, StatsDelta> deltas = new HashMap<>();
+        for (PendingBid bid : bids) {
+            StatsDelta delta = deltas.computeIfAbsent(new StatsKey(bid.lotId(), bid.bidderName()), key -> new StatsDelta());
+            delta.count++;
+            if (delta.lastBidTime == null || delta.lastBidTime.before(bid.bidTime())) {
+                delta.lastBidTime = bid.bidTime();
+            }
+        }
+        // единый порядок блокировки строк, чтобы параллельные пакеты не взаимоблокировались
+        List<Map.Entry<StatsKey, StatsDelta>> rows = new ArrayList<>(deltas.entrySet());
+        rows.sort(Map.Entry.comparingByKey(Comparator.comparingInt(StatsKey::lotId).thenComparing(StatsKey::bidderName)));
+        jdbcTemplate.batchUpdate(UPSERT, rows, rows.size(), (ps, row) -> {
+            ps.setInt(1, row.getKey().lotId());
+            ps.setString(2, row.getKey().bidderName());
+            ps.setInt(3, row.getValue().count);
+            ps.setTimestamp(4, row.getValue().lastBidTime);
+        });
+    }
+
+    public List<BidderStats> findTop(int lotId, int limit) {
+        return jdbcTemplate.query(SELECT_TOP, (rs, rowNum) -> new BidderStats(
+                rs.getString("bidder_name"), rs.getLong("bid_count"), rs.getTimestamp("last_bid_time")), lotId, limit);
+    }
+
+    public List<BidderStats> findAll(int lotId) {
+        return jdbcTemplate.query(SELECT_ALL, (rs, rowNum) -> new BidderStats(
+                rs.getString("bidder_name"), rs.getLong("bid_count"), rs.getTimestamp("last_bid_time")), lotId);
+    }
+
+    private record StatsKey(int lotId, String bidderName) {
+    }
+
+    private static final class StatsDelta {
+        private int count;
+        private Timestamp lastBidTime;
+    }
+}
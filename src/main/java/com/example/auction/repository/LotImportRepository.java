@@ -0,0 +1,64 @@
+package com.example.auction.repository;
+
+import com.example.auction.enums.LotStatus;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Загрузка лотов через промежуточную таблицу lot_import_staging. Оба метода вызываются
+ * в одной транзакции: строки, скопированные через COPY, в ней же переносятся в lot и удаляются.
+ */
+@Repository
+public class LotImportRepository {
+
+    public static final String[] STAGING_COLUMNS = {"import_id", "line", "title", "description", "start_price", "bid_price", "open_at", "close_at"};
+
+    private static final String COPY_TO_STAGING = "COPY lot_import_staging (" + String.join(", ", STAGING_COLUMNS)
+            + ") FROM STDIN WITH (FORMAT csv)";
+
+    private static final String MOVE_TO_LOTS = """
+            WITH moved AS (DELETE FROM lot_import_staging WHERE import_id = ?
+                           RETURNING line, title, description, start_price, bid_price, open_at, close_at),
+                 inserted AS (INSERT INTO lot (title, description, start_price, bid_price, current_price, status, open_at, close_at)
+                              SELECT title, description, start_price, bid_price, start_price, %d, open_at, close_at
+                              FROM moved ORDER BY line
+                              RETURNING id, open_at)
+            SELECT id FROM inserted WHERE open_at IS NOT NULL""".formatted(LotStatus.CREATED.ordinal());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LotImportRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param csv строки в формате CSV PostgreSQL в порядке столбцов {@link #STAGING_COLUMNS}
+     * @return число скопированных строк
+     */
+    public long copyToStaging(byte[] csv) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            try {
+                return con.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_TO_STAGING, new ByteArrayInputStream(csv));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Переносит строки импорта в lot в порядке их следования во входном файле.
+     *
+     * @return id загруженных лотов с заданным временем открытия
+     */
+    public List<Integer> moveToLots(UUID importId) {
+        return jdbcTemplate.queryForList(MOVE_TO_LOTS, Integer.class, importId);
+    }
+}
@@ -1,11 +1,58 @@
 package com.example.auction.repository;
 
+import com.example.auction.dto.LotCsvRow;
+import com.example.auction.dto.LotSummary;
+import com.example.auction.dto.LotVersion;
 import com.example.auction.enums.LotStatus;
 import com.example.auction.model.Lot;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
 
 public interface LotRepository extends JpaRepository<Lot, Integer> {
-    Page<Lot> findAllByStatus(LotStatus status, Pageable pageable);
+    @Query(value = """
+            select new com.example.auction.dto.LotSummary(l.id, l.status, l.title, l.description, l.startPrice, l.bidPrice)
+            from Lot l where l.status = :status order by l.id""",
+            countQuery = "select count(l) from Lot l where l.status = :status")
+    Page<LotSummary> findSummariesByStatus(@Param("status") LotStatus status, Pageable pageable);
+
+    @Modifying
+    @Query("""
+            update Lot l set l.bidCount = l.bidCount + 1,
+                l.currentPrice = l.currentPrice + l.bidPrice,
+                l.firstBidderName = coalesce(l.firstBidderName, :bidderName),
+                l.firstBidTime = coalesce(l.firstBidTime, :bidTime),
+                l.lastBidderName = :bidderName,
+                l.lastBidTime = :bidTime,
+                l.closeAt = case when l.closeAt < :extensionEdge then :extendedCloseAt else l.closeAt end,
+                l.version = l.version + 1
+            where l.id = :lotId and l.status = :status and (l.closeAt is null or l.closeAt > :bidTime)""")
+    int registerBid(@Param("lotId") int lotId, @Param("status") LotStatus status,
+                    @Param("bidderName") String bidderName, @Param("bidTime") Timestamp bidTime,
+                    @Param("extensionEdge") Timestamp extensionEdge, @Param("extendedCloseAt") Timestamp extendedCloseAt);
+
+    @Query("""
+            select new com.example.auction.dto.LotCsvRow(l.id, l.title, l.status, coalesce(l.lastBidderName, 'нет ставок'), l.currentPrice)
+            from Lot l where l.id > :afterId order by l.id""")
+    List<LotCsvRow> findCsvRowsAfter(@Param("afterId") int afterId, Pageable pageable);
+
+    @Query("""
+            select new com.example.auction.dto.LotSummary(l.id, l.status, l.title, l.description, l.startPrice, l.bidPrice)
+            from Lot l where l.status = :status and l.id > :afterId order by l.id""")
+    List<LotSummary> findSummariesByStatusAfter(@Param("status") LotStatus status, @Param("afterId") int afterId, Pageable pageable);
+
+    long countByStatus(LotStatus status);
+
+    @Query("select l.id from Lot l where l.id in :ids")
+    List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+    @Query("select new com.example.auction.dto.LotVersion(l.id, l.version) from Lot l where l.id in :ids and l.status = :status")
+    List<LotVersion> findVersions(@Param("ids") Collection<Integer> ids, @Param("status") LotStatus status);
 }
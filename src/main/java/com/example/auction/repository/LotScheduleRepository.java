@@ -0,0 +1,77 @@
+package com.example.auction.repository;
+
+import com.example.auction.dto.LotDeadline;
+import com.example.auction.enums.LotTransition;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Расписание лотов: пакетная смена статуса по наступившим срокам и чтение сроков.
+ * Условие по статусу и сроку проверяется в самом UPDATE, поэтому повторный или запоздавший
+ * вызов, в том числе с другого узла, ничего не меняет.
+ */
+@Repository
+public class LotScheduleRepository {
+
+    private static final RowMapper<LotDeadline> DEADLINE_MAPPER = (rs, rowNum) -> new LotDeadline(rs.getInt(1), rs.getTimestamp(2));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LotScheduleRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Меняет статус лотов, срок которых наступил к {@code now}.
+     *
+     * @return id лотов, статус которых изменен
+     */
+    public List<Integer> applyDue(LotTransition transition, Collection<Integer> lotIds, Timestamp now) {
+        String sql = "UPDATE lot SET status = " + transition.to().ordinal() + ", version = version + 1"
+                + " WHERE id = ANY (?) AND status = " + transition.from().ordinal()
+                + " AND " + column(transition) + " <= ? RETURNING id";
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("integer", lotIds.toArray()));
+            ps.setTimestamp(2, now);
+            return ps;
+        }, (rs, rowNum) -> rs.getInt(1));
+    }
+
+    /**
+     * Сроки лотов, которые еще ожидают смены статуса.
+     */
+    public List<LotDeadline> findDeadlines(LotTransition transition, Collection<Integer> lotIds) {
+        String sql = "SELECT id, " + column(transition) + " FROM lot"
+                + " WHERE id = ANY (?) AND status = " + transition.from().ordinal()
+                + " AND " + column(transition) + " IS NOT NULL";
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("integer", lotIds.toArray()));
+            return ps;
+        }, DEADLINE_MAPPER);
+    }
+
+    /**
+     * Страница ожидающих сроков по возрастанию id - для восстановления расписания при старте.
+     */
+    public List<LotDeadline> findDeadlinesAfter(LotTransition transition, int afterId, int limit) {
+        String sql = "SELECT id, " + column(transition) + " FROM lot"
+                + " WHERE status = " + transition.from().ordinal() + " AND " + column(transition) + " IS NOT NULL"
+                + " AND id > ? ORDER BY id LIMIT ?";
+        return jdbcTemplate.query(sql, DEADLINE_MAPPER, afterId, limit);
+    }
+
+    private static String column(LotTransition transition) {
+        return switch (transition) {
+            case OPEN -> "open_at";
+            case CLOSE -> "close_at";
+        };
+    }
+}
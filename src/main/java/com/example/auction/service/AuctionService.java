@@ -1,18 +1,32 @@
 package com.example.auction.service;
 
 import com.example.auction.dto.*;
+import com.example.auction.enums.BidAcceptance;
+import com.example.auction.enums.LotImportFormat;
 import com.example.auction.enums.LotStatus;
 import org.springframework.data.domain.Page;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Optional;
+
 public interface AuctionService {
 
-    String getFirstBidder(int lotId);
-    String getMostFrequentBidder(int lotId);
+    AuctionResult<BidDTO> getFirstBidder(int lotId, long minVersion);
+    AuctionResult<BidDTO> getMostFrequentBidder(int lotId, long minVersion);
+    Optional<List<BidderStats>> getTopBidders(int lotId, int limit);
     FullLotDTO getFullLotById(int lotId);
-    boolean startLot(int lotId);
-    String createBid(int lotId, CreationBidDTO creationBidDTO);
-    boolean stopLot(int lotId);
+    AuctionResult<LotStatus> startLot(int lotId);
+    AuctionResult<BidAcceptance> createBid(int lotId, CreationBidDTO creationBidDTO);
+    List<AuctionResult<BidAcceptance>> createBids(List<BatchBidEntryDTO> entries);
+    AuctionResult<LotStatus> stopLot(int lotId);
     LotDto createLot(CreationLotDTO lotRequest);
     Page<LotDto> findLotsByStatus(LotStatus status, int page);
-    byte[] exportLotsToCSV();
+    Page<LotDto> refreshLotsByStatus(LotStatus status, int page);
+    LotCursorPageDTO findLotsByStatusAfter(LotStatus status, int afterId, int size, boolean withTotal);
+    boolean hasLotsToExport();
+    void exportLotsToCSV(OutputStream outputStream) throws IOException;
+    LotImportResultDTO importLots(InputStream inputStream, LotImportFormat format) throws IOException;
 }
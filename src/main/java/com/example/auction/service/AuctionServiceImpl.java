@@ -1,233 +1,513 @@
 package com.example.auction.service;
 
+import com.example.auction.bulk.LotImporter;
+import com.example.auction.config.ReadYourWritesTracker;
 import com.example.auction.dto.*;
+import com.example.auction.enums.AuctionFailure;
+import com.example.auction.enums.BidAcceptance;
+import com.example.auction.enums.LotImportFormat;
 import com.example.auction.enums.LotStatus;
+import com.example.auction.event.BidsPlacedEvent;
+import com.example.auction.event.LotStatusChangedEvent;
+import com.example.auction.hotstore.HotLotStore;
+import com.example.auction.ingest.BidIngestEngine;
+import com.example.auction.ingest.PendingBid;
+import com.example.auction.lifecycle.AntiSnipingPolicy;
 import com.example.auction.model.Bid;
 import com.example.auction.model.Lot;
+import com.example.auction.repository.BidBatchRepository;
 import com.example.auction.repository.BidRepository;
+import com.example.auction.repository.BidStatsRepository;
 import com.example.auction.repository.LotRepository;
+import com.example.auction.utilities.LotMapper;
 import com.example.auction.utilities.ServiceUtilities;
+import io.micrometer.core.annotation.Timed;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
-import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.BufferedWriter;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
-import java.time.LocalDateTime;
+import java.time.Duration;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
+@Timed(value = "auction.service", histogram = true)
 public class AuctionServiceImpl implements AuctionService {
 
     private final LotRepository lotRepository;
     private final BidRepository bidRepository;
-    private final ModelMapper modelMapper;
+    private final BidStatsRepository bidStatsRepository;
+    private final BidBatchRepository bidBatchRepository;
+    private final LotMapper lotMapper;
     private final ServiceUtilities serviceUtilities;
+    private final BidIngestEngine bidIngestEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final LotLockRegistry lotLockRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AntiSnipingPolicy antiSnipingPolicy;
+    private final LotImporter lotImporter;
+    private final HotLotStore hotLotStore;
+    private final ObjectProvider<ReadYourWritesTracker> readYourWritesTracker;
+    private final int exportPageSize;
+    private final int maxListingPageSize;
+    private final int maxConflictRetries;
+    private final long conflictBackoffMillis;
+    private final int batchChunkSize;
     private static final Logger logger = LoggerFactory.getLogger(AuctionServiceImpl.class);
 
-    public AuctionServiceImpl(LotRepository lotRepository, BidRepository bidRepository, ModelMapper modelMapper, ServiceUtilities serviceUtilities) {
+    public AuctionServiceImpl(LotRepository lotRepository, BidRepository bidRepository, BidStatsRepository bidStatsRepository,
+                              BidBatchRepository bidBatchRepository, LotMapper lotMapper, ServiceUtilities serviceUtilities,
+                              BidIngestEngine bidIngestEngine, TransactionTemplate transactionTemplate, LotLockRegistry lotLockRegistry,
+                              ApplicationEventPublisher eventPublisher, AntiSnipingPolicy antiSnipingPolicy, LotImporter lotImporter,
+                              HotLotStore hotLotStore, ObjectProvider<ReadYourWritesTracker> readYourWritesTracker,
+                              @Value("${auction.export.page-size:1000}") int exportPageSize,
+                              @Value("${auction.listing.max-page-size:100}") int maxListingPageSize,
+                              @Value("${auction.concurrency.max-conflict-retries:5}") int maxConflictRetries,
+                              @Value("${auction.concurrency.conflict-backoff:10ms}") Duration conflictBackoff,
+                              @Value("${auction.batch.chunk-size:500}") int batchChunkSize) {
         this.lotRepository = lotRepository;
         this.bidRepository = bidRepository;
-        this.modelMapper = modelMapper;
+        this.bidStatsRepository = bidStatsRepository;
+        this.bidBatchRepository = bidBatchRepository;
+        this.lotMapper = lotMapper;
         this.serviceUtilities = serviceUtilities;
+        this.bidIngestEngine = bidIngestEngine;
+        this.transactionTemplate = transactionTemplate;
+        this.lotLockRegistry = lotLockRegistry;
+        this.eventPublisher = eventPublisher;
+        this.antiSnipingPolicy = antiSnipingPolicy;
+        this.lotImporter = lotImporter;
+        this.hotLotStore = hotLotStore;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.exportPageSize = exportPageSize;
+        this.maxListingPageSize = maxListingPageSize;
+        this.maxConflictRetries = maxConflictRetries;
+        this.conflictBackoffMillis = conflictBackoff.toMillis();
+        this.batchChunkSize = batchChunkSize;
     }
 
+    /**
+     * Хранилище открытых лотов отвечает, только если знает лот не хуже версии {@code minVersion},
+     * иначе ответ строится по БД. Кэш по-прежнему по id лота: он очищается при изменении лота.
+     */
     @Override
-    @Cacheable("firstBidder")
-    public String getFirstBidder(int lotId) {
+    @Cacheable(value = "firstBidder", key = "#lotId")
+    public AuctionResult<BidDTO> getFirstBidder(int lotId, long minVersion) {
+        AuctionResult<BidDTO> stored = hotLotStore.firstBidder(lotId, minVersion);
+        if (stored != null) {
+            return stored;
+        }
+        long stamp = hotLotStore.stamp(lotId);
         Lot lot = lotRepository.findById(lotId).orElse(null);
         if (lot == null) {
-            return "Лот не найден";
+            return AuctionResult.failure(AuctionFailure.LOT_NOT_FOUND);
         }
         if (lot.getStatus() == LotStatus.CREATED) {
-            return "Лот в неверном статусе";
+            return AuctionResult.failure(AuctionFailure.WRONG_STATUS);
         }
-        Optional<Bid> firstBidOptional = lot.getBidsById().stream().findFirst();
-        if (firstBidOptional.isEmpty()) {
-            return "Заявок по этому лоту нет";
+        warmHotLot(lot, stamp);
+        if (lot.getBidCount() == 0) {
+            return AuctionResult.failure(AuctionFailure.NO_BIDS);
         }
-        Bid firstBid = firstBidOptional.get();
         BidDTO firstBidder = new BidDTO();
-        firstBidder.setBidderName(firstBid.getBidderName());
-        firstBidder.setBidTime(firstBid.getBidTime());
-        return firstBidder.toString();
+        firstBidder.setBidderName(lot.getFirstBidderName());
+        firstBidder.setBidTime(lot.getFirstBidTime());
+        return AuctionResult.success(firstBidder);
     }
 
+    /**
+     * Хранилище открытых лотов отвечает, только если знает лот не хуже версии {@code minVersion},
+     * иначе ответ строится по БД. Кэш по-прежнему по id лота: он очищается при изменении лота.
+     */
     @Override
-    @Cacheable("mostFrequentBidder")
-    public String getMostFrequentBidder(int lotId) {
+    @Cacheable(value = "mostFrequentBidder", key = "#lotId")
+    public AuctionResult<BidDTO> getMostFrequentBidder(int lotId, long minVersion) {
         logger.info("Запущен метод getMostFrequentBidder");
+        AuctionResult<BidDTO> stored = hotLotStore.mostFrequentBidder(lotId, minVersion);
+        if (stored != null) {
+            return stored;
+        }
+        long stamp = hotLotStore.stamp(lotId);
         Lot lot = lotRepository.findById(lotId).orElse(null);
         if (lot == null) {
-            return "Лот не найден";
-        }
-        List<Bid> bids = lot.getBidsById();
-        if (bids.isEmpty() || lot.getStatus() == LotStatus.CREATED) {
-            return "Заявок по этому лоту нет";
-        }
-        Map<String, Long> bidderCounts = bids.stream()
-                .collect(Collectors.groupingBy(Bid::getBidderName, Collectors.counting()));
-        logger.info("Количество ставок для каждого участника - bidderCounts: " + bidderCounts);
-        long maxBidCount = bidderCounts.values().stream()
-                .max(Long::compare)
-                .orElse(0L);
-        logger.info("Максимальное количество ставок - maxBidCount: " + maxBidCount);
-        List<String> mostFrequentBidders = bidderCounts.entrySet().stream()
-                .filter(entry -> entry.getValue() == maxBidCount)
-                .map(Map.Entry::getKey)
-                .toList();
-        logger.info("Участник с максимальным количеством ставок - mostFrequentBidders: " + mostFrequentBidders);
-        if (mostFrequentBidders.size() != 1) {
-            return "Не удалось определить наиболее активного участника";
-        }
-        String mostFrequentBidderName = mostFrequentBidders.get(0);
-        Optional<Bid> mostFrequentBidderLastBid = bids.stream()
-                .filter(bid -> bid.getBidderName().equals(mostFrequentBidderName))
-                .max(Comparator.comparing(Bid::getBidTime));
+            return AuctionResult.failure(AuctionFailure.LOT_NOT_FOUND);
+        }
+        warmHotLot(lot, stamp);
+        if (lot.getBidCount() == 0 || lot.getStatus() == LotStatus.CREATED) {
+            return AuctionResult.failure(AuctionFailure.NO_BIDS);
+        }
+        // двух лидеров достаточно, чтобы понять, единственный ли участник с максимумом ставок
+        List<BidderStats> topBidders = findTopBidders(lotId, 2);
+        logger.debug("Участники с наибольшим количеством ставок - topBidders: {}", topBidders);
+        if (topBidders.isEmpty()) {
+            return AuctionResult.failure(AuctionFailure.NO_BIDS);
+        }
+        if (topBidders.size() > 1 && topBidders.get(0).bidCount() == topBidders.get(1).bidCount()) {
+            return AuctionResult.failure(AuctionFailure.NO_SINGLE_LEADER);
+        }
+        BidderStats topBidder = topBidders.get(0);
         BidDTO mostFrequentBidder = new BidDTO();
-        mostFrequentBidder.setBidderName(mostFrequentBidderName);
-        mostFrequentBidder.setBidTime(mostFrequentBidderLastBid.get().getBidTime());
-        return mostFrequentBidder.toString();
+        mostFrequentBidder.setBidderName(topBidder.bidderName());
+        mostFrequentBidder.setBidTime(topBidder.lastBidTime());
+        return AuctionResult.success(mostFrequentBidder);
+    }
+
+    /**
+     * Загружает открытый лот в хранилище, чтобы следующие запросы по нему не шли в БД.
+     */
+    private void warmHotLot(Lot lot, long stamp) {
+        if (hotLotStore.isEnabled() && stamp >= 0 && lot.getStatus() == LotStatus.STARTED) {
+            hotLotStore.load(lot, bidStatsRepository.findAll(lot.getId()), stamp);
+        }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<List<BidderStats>> getTopBidders(int lotId, int limit) {
+        if (!lotRepository.existsById(lotId)) {
+            return Optional.empty();
+        }
+        return Optional.of(findTopBidders(lotId, Math.max(1, Math.min(limit, maxListingPageSize))));
+    }
+
+    private List<BidderStats> findTopBidders(int lotId, int limit) {
+        List<BidderStats> topBidders = bidStatsRepository.findTop(lotId, limit);
+        if (topBidders.isEmpty()) {
+            // таблица лидеров еще не заполнена для этого лота - считаем по таблице ставок
+            topBidders = bidRepository.findTopBidders(lotId, PageRequest.ofSize(limit));
+        }
+        return topBidders;
+    }
+
+    /**
+     * Чтения, результат которых кэшируется, выполняются на основной БД: значение, прочитанное
+     * с отстающей реплики сразу после очистки кэша, осталось бы в кэше до следующего изменения лота.
+     */
     @Override
     @Cacheable("fullLot")
     public FullLotDTO getFullLotById(int lotId) {
         Lot lot = lotRepository.findById(lotId).orElse(null);
-        FullLotDTO fullLotDTO = new FullLotDTO();
-        if (lot != null) {
-            modelMapper.map(lot, fullLotDTO);
-            fullLotDTO.setCurrentPrice(lot.getStatus() != LotStatus.CREATED ? serviceUtilities.calculateCurrentPrice(lot) : lot.getStartPrice());
-            fullLotDTO.setLastBid(serviceUtilities.getLastBidDTO(lot));
+        if (lot == null) {
+            return new FullLotDTO();
         }
+        FullLotDTO fullLotDTO = lotMapper.toFullLotDTO(lot);
+        fullLotDTO.setCurrentPrice(lot.getStatus() != LotStatus.CREATED ? serviceUtilities.calculateCurrentPrice(lot) : lot.getStartPrice());
+        fullLotDTO.setLastBid(serviceUtilities.getLastBidDTO(lot));
         return fullLotDTO;
     }
 
     @Override
-    @CacheEvict(cacheNames = {"firstBidder", "fullLot", "lotsByStatus"}, key = "#lotId")
-    public boolean startLot(int lotId) {
+    public AuctionResult<LotStatus> startLot(int lotId) {
         logger.info("Запущен метод startLot");
-        try {
-            Lot lot = lotRepository.findById(lotId).orElseThrow();
-            if (lot.getStatus() != LotStatus.STARTED) {
-                lot.setStatus(LotStatus.STARTED);
-                lotRepository.save(lot);
-            }
-        } catch (Exception e) {
-            logger.error("Ошибка чтения/записи в БД (Лот по этому id не найден)");
-            return false;
-        }
-        return true;
+        return changeStatus(lotId, LotStatus.STARTED);
     }
 
     @Override
-    @CacheEvict(cacheNames = {"firstBidder", "fullLot", "lotsByStatus", "mostFrequentBidder"}, key = "#lotId")
-    public String createBid(int lotId, CreationBidDTO creationBidDTO) {
+    public AuctionResult<BidAcceptance> createBid(int lotId, CreationBidDTO creationBidDTO) {
         logger.info("Запущен метод createBid");
-        Lot lot = lotRepository.findById(lotId).orElse(null);
-        logger.debug("Обращение к таблице lot (чтение), результат - lot: " + lot);
-        if (lot == null) {
-            return "Лот не найден";
+        if (!ServiceUtilities.isValidBidderName(creationBidDTO.getBidderName())) {
+            return AuctionResult.failure(AuctionFailure.INVALID_BIDDER_NAME);
+        }
+        AuctionResult<BidAcceptance> result = null;
+        if (bidIngestEngine.isEnabled()) {
+            result = ingestResult(bidIngestEngine.submit(lotId, creationBidDTO.getBidderName()));
+        }
+        if (result == null) {
+            result = saveBidWithLock(lotId, creationBidDTO.getBidderName());
         }
-        if (lot.getStatus() != LotStatus.STARTED) {
-            return "Лот в неверном статусе";
+        if (result instanceof AuctionResult.Success<BidAcceptance>) {
+            markWrite();
+        }
+        return result;
+    }
+
+    /**
+     * Принятая через очередь ставка пишется в БД не в потоке запроса, поэтому маршрутизация
+     * на реплики не видит записи; клиент отмечается явно, чтобы следующие чтения шли в основную БД.
+     * Трекер есть только при auction.datasource.replica-routing=true.
+     */
+    private void markWrite() {
+        readYourWritesTracker.ifAvailable(ReadYourWritesTracker::markWrite);
+    }
+
+    /**
+     * @return null, если ставку нужно записать синхронно
+     */
+    private static AuctionResult<BidAcceptance> ingestResult(BidIngestEngine.Outcome outcome) {
+        return switch (outcome) {
+            case ACCEPTED -> AuctionResult.success(BidAcceptance.CONFIRMED);
+            case ACCEPTED_UNCONFIRMED -> AuctionResult.success(BidAcceptance.PENDING);
+            case LOT_NOT_FOUND -> AuctionResult.failure(AuctionFailure.LOT_NOT_FOUND);
+            case WRONG_STATUS -> AuctionResult.failure(AuctionFailure.WRONG_STATUS);
+            case INVALID_BIDDER_NAME -> AuctionResult.failure(AuctionFailure.INVALID_BIDDER_NAME);
+            case OVERLOADED -> AuctionResult.failure(AuctionFailure.INGEST_OVERLOADED);
+            case REJECTED -> null;
+        };
+    }
+
+    private AuctionResult<BidAcceptance> saveBidWithLock(int lotId, String bidderName) {
+        return lotLockRegistry.withLock(lotId, () -> transactionTemplate.execute(status -> saveBid(lotId, bidderName)));
+    }
+
+    private AuctionResult<BidAcceptance> saveBid(int lotId, String bidderName) {
+        Timestamp bidTime = serviceUtilities.currentBidTime();
+        int updated = lotRepository.registerBid(lotId, LotStatus.STARTED, bidderName, bidTime,
+                antiSnipingPolicy.extensionEdge(bidTime), antiSnipingPolicy.extendedCloseAt(bidTime));
+        logger.debug("Обращение к таблице lot (запись агрегатов), изменено строк: {}", updated);
+        if (updated == 0) {
+            return AuctionResult.failure(lotRepository.existsById(lotId) ? AuctionFailure.WRONG_STATUS : AuctionFailure.LOT_NOT_FOUND);
         }
         Bid bid = new Bid();
-        bid.setBidderName(creationBidDTO.getBidderName());
-        bid.setBidTime(Timestamp.valueOf(LocalDateTime.now().plusHours(4)));
-        bid.setLotByLotId(lot);
+        bid.setBidderName(bidderName);
+        bid.setBidTime(bidTime);
+        bid.setLotByLotId(lotRepository.getReferenceById(lotId));
         bidRepository.save(bid);
-        logger.debug("Обращение к таблице bid (запись), результат - bid: " + bid);
-        return "Ставка создана";
+        bidStatsRepository.increment(lotId, bidderName, bidTime);
+        eventPublisher.publishEvent(BidsPlacedEvent.of(lotId, bidderName, bidTime));
+        logger.debug("Обращение к таблице bid (запись), результат - bid: {}", bid);
+        return AuctionResult.success(BidAcceptance.CONFIRMED);
     }
 
+    /**
+     * Каждая ставка проверяется отдельно и получает свой результат. При включенном быстром приеме
+     * ставки идут через его очередь, чтобы не обгонять уже принятые ставки по тем же лотам;
+     * иначе пакет записывается частями по {@code auction.batch.chunk-size}, каждая часть под
+     * блокировками только своих лотов и в своей транзакции.
+     */
     @Override
-    @CacheEvict(cacheNames = {"firstBidder", "fullLot", "lotsByStatus"}, key = "#lotId")
-    public boolean stopLot(int lotId) {
+    public List<AuctionResult<BidAcceptance>> createBids(List<BatchBidEntryDTO> entries) {
+        logger.info("Запущен метод createBids, ставок в пакете: {}", entries.size());
+        @SuppressWarnings("unchecked")
+        AuctionResult<BidAcceptance>[] results = new AuctionResult[entries.size()];
+        List<Integer> valid = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            BatchBidEntryDTO entry = entries.get(i);
+            if (entry == null || !ServiceUtilities.isValidBidderName(entry.getBidderName())) {
+                results[i] = AuctionResult.failure(AuctionFailure.INVALID_BIDDER_NAME);
+            } else {
+                valid.add(i);
+            }
+        }
+        if (bidIngestEngine.isEnabled()) {
+            submitBids(entries, valid, results);
+        } else {
+            for (int from = 0; from < valid.size(); from += batchChunkSize) {
+                saveBidChunk(entries, valid.subList(from, Math.min(from + batchChunkSize, valid.size())), results);
+            }
+        }
+        if (Arrays.stream(results).anyMatch(result -> result instanceof AuctionResult.Success<BidAcceptance>)) {
+            markWrite();
+        }
+        return Arrays.asList(results);
+    }
+
+    private void submitBids(List<BatchBidEntryDTO> entries, List<Integer> indexes, AuctionResult<BidAcceptance>[] results) {
+        List<BidIngestEngine.Outcome> outcomes = bidIngestEngine.submitAll(indexes.stream().map(entries::get).toList());
+        for (int i = 0; i < indexes.size(); i++) {
+            BatchBidEntryDTO entry = entries.get(indexes.get(i));
+            AuctionResult<BidAcceptance> result = ingestResult(outcomes.get(i));
+            if (result == null) {
+                result = saveBidWithLock(entry.getLotId(), entry.getBidderName());
+            }
+            results[indexes.get(i)] = result;
+        }
+    }
+
+    private void saveBidChunk(List<BatchBidEntryDTO> entries, List<Integer> indexes, AuctionResult<BidAcceptance>[] results) {
+        List<PendingBid> bids = new ArrayList<>(indexes.size());
+        Set<Integer> lotIds = new LinkedHashSet<>();
+        for (int index : indexes) {
+            BatchBidEntryDTO entry = entries.get(index);
+            bids.add(new PendingBid(index, entry.getLotId(), entry.getBidderName(), serviceUtilities.currentBidTime(), null));
+            lotIds.add(entry.getLotId());
+        }
+        Set<Integer> acceptedLots = lotLockRegistry.withLocks(lotIds, () -> transactionTemplate.execute(status -> {
+            Set<Integer> accepted = bidBatchRepository.saveAllForStartedLots(bids);
+            List<PendingBid> acceptedBids = bids.stream().filter(bid -> accepted.contains(bid.lotId())).toList();
+            if (!acceptedBids.isEmpty()) {
+                bidStatsRepository.incrementAll(acceptedBids);
+                eventPublisher.publishEvent(new BidsPlacedEvent(acceptedBids.stream().map(PendingBid::toPlacedBid).toList()));
+            }
+            return accepted;
+        }));
+        Set<Integer> rejectedLots = new HashSet<>(lotIds);
+        rejectedLots.removeAll(acceptedLots);
+        Set<Integer> existingLots = rejectedLots.isEmpty() ? Set.of() : new HashSet<>(lotRepository.findExistingIds(rejectedLots));
+        for (int index : indexes) {
+            int lotId = entries.get(index).getLotId();
+            if (acceptedLots.contains(lotId)) {
+                results[index] = AuctionResult.success(BidAcceptance.CONFIRMED);
+            } else {
+                AuctionFailure failure = existingLots.contains(lotId) ? AuctionFailure.WRONG_STATUS : AuctionFailure.LOT_NOT_FOUND;
+                results[index] = AuctionResult.failure(failure);
+            }
+        }
+    }
+
+    @Override
+    public AuctionResult<LotStatus> stopLot(int lotId) {
         logger.info("Запущен метод stopLot");
-        try {
-            Lot lot = lotRepository.findById(lotId).orElseThrow();
-            if (lot.getStatus() != LotStatus.STOPPED) {
-                lot.setStatus(LotStatus.STOPPED);
-                lotRepository.save(lot);
+        bidIngestEngine.closeLot(lotId);
+        return changeStatus(lotId, LotStatus.STOPPED);
+    }
+
+    /**
+     * Меняет статус под блокировкой лота. Блокировка не исключает конфликт версий: версию лота
+     * повышают и без нее поток записи очереди ставок, пакетный UPDATE агрегатов и планировщик
+     * открытия и закрытия лотов на этом узле, а также другие узлы. Поэтому попытка повторяется
+     * ограниченное число раз, между попытками без блокировки лота выдерживается случайная пауза до
+     * {@code auction.concurrency.conflict-backoff}, удваиваемого с каждой попыткой, чтобы конкурирующие
+     * запросы не сталкивались снова.
+     *
+     * @return предыдущий статус лота или CONFLICT, если конфликт версий не разрешился за все попытки
+     */
+    private AuctionResult<LotStatus> changeStatus(int lotId, LotStatus newStatus) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                LotStatus previousStatus = lotLockRegistry.withLock(lotId, () -> transactionTemplate.execute(status -> {
+                    Lot lot = lotRepository.findById(lotId).orElseThrow();
+                    LotStatus currentStatus = lot.getStatus();
+                    if (currentStatus != newStatus) {
+                        lot.setStatus(newStatus);
+                        lotRepository.save(lot);
+                    }
+                    return currentStatus;
+                }));
+                if (previousStatus != newStatus) {
+                    eventPublisher.publishEvent(new LotStatusChangedEvent(lotId, previousStatus, newStatus));
+                }
+                return AuctionResult.success(previousStatus);
+            } catch (NoSuchElementException e) {
+                logger.error("Ошибка чтения/записи в БД (Лот по этому id не найден)");
+                return AuctionResult.failure(AuctionFailure.LOT_NOT_FOUND);
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxConflictRetries) {
+                    logger.error("Не удалось изменить статус лота {} после {} попыток", lotId, attempt);
+                    return AuctionResult.failure(AuctionFailure.CONFLICT);
+                }
+                logger.debug("Конфликт версий лота {}, попытка {}", lotId, attempt);
+            }
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextLong((conflictBackoffMillis << (attempt - 1)) + 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return AuctionResult.failure(AuctionFailure.CONFLICT);
             }
-        } catch (Exception e) {
-            logger.error("Ошибка чтения/записи в БД (Лот по этому id не найден)");
-            return false;
         }
-        return true;
     }
 
     @Override
+    @Transactional
     public LotDto createLot(CreationLotDTO creationLotDTO) {
         logger.info("Запущен метод createLot");
-        Lot lot = modelMapper.map(creationLotDTO, Lot.class);
+        Lot lot = lotMapper.toLot(creationLotDTO);
         lot.setStatus(LotStatus.CREATED);
+        lot.setCurrentPrice(lot.getStartPrice());
         lotRepository.save(lot);
-        logger.debug("Обращение к таблице lot (запись), результат - lot: " + lot);
-        return modelMapper.map(lot, LotDto.class);
+        eventPublisher.publishEvent(new LotStatusChangedEvent(lot.getId(), null, LotStatus.CREATED));
+        logger.debug("Обращение к таблице lot (запись), результат - lot: {}", lot);
+        return lotMapper.toLotDto(lot);
     }
 
     @Override
-    @Cacheable("lotsByStatus")
+    @Cacheable(cacheNames = "lotsByStatus", key = "T(com.example.auction.cache.LotCacheEvictor).pageKey(#status, #page)")
     public Page<LotDto> findLotsByStatus(LotStatus status, int page) {
+        return loadLotsByStatus(status, page);
+    }
+
+    /**
+     * Читает страницу из БД и записывает ее в кэш, даже если она там уже есть.
+     */
+    @Override
+    @CachePut(cacheNames = "lotsByStatus", key = "T(com.example.auction.cache.LotCacheEvictor).pageKey(#status, #page)")
+    public Page<LotDto> refreshLotsByStatus(LotStatus status, int page) {
+        return loadLotsByStatus(status, page);
+    }
+
+    private Page<LotDto> loadLotsByStatus(LotStatus status, int page) {
         Pageable pageable = PageRequest.of(page, 10);
-        Page<Lot> lotPage = lotRepository.findAllByStatus(status, pageable);
+        Page<LotSummary> lotPage = lotRepository.findSummariesByStatus(status, pageable);
         if (lotPage.isEmpty()) {
             logger.info("Нет данных для отображения");
             return Page.empty();
         }
-        return lotPage.map(lot -> modelMapper.map(lot, LotDto.class));
+        return lotPage.map(lotMapper::toLotDto);
     }
 
 
     @Override
-    public byte[] exportLotsToCSV() {
+    @Transactional(readOnly = true)
+    public LotCursorPageDTO findLotsByStatusAfter(LotStatus status, int afterId, int size, boolean withTotal) {
+        int pageSize = Math.max(1, Math.min(size, maxListingPageSize));
+        // запрашиваем на одну запись больше, чтобы без count(*) понять, есть ли следующая страница
+        List<LotSummary> summaries = lotRepository.findSummariesByStatusAfter(status, afterId, PageRequest.ofSize(pageSize + 1));
+        boolean hasNext = summaries.size() > pageSize;
+        List<LotDto> content = new ArrayList<>(Math.min(summaries.size(), pageSize));
+        for (int i = 0; i < summaries.size() && i < pageSize; i++) {
+            content.add(lotMapper.toLotDto(summaries.get(i)));
+        }
+        LotCursorPageDTO cursorPage = new LotCursorPageDTO();
+        cursorPage.setContent(content);
+        cursorPage.setSize(pageSize);
+        cursorPage.setNextCursor(hasNext ? content.get(content.size() - 1).getId() : null);
+        if (withTotal) {
+            cursorPage.setTotalElements(lotRepository.countByStatus(status));
+        }
+        return cursorPage;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean hasLotsToExport() {
+        return !lotRepository.findCsvRowsAfter(0, PageRequest.ofSize(1)).isEmpty();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportLotsToCSV(OutputStream outputStream) throws IOException {
         logger.info("Запущен метод exportLotsToCSV");
-        List<Lot> lots = lotRepository.findAll();
-        logger.debug("Обращение к таблице lot (чтение), результат - lots: " + lots);
-        if (lots.isEmpty()) {
-            logger.info("Список лотов пуст, экспорт не требуется");
-            return new byte[0];
-        }
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(outputStream));
-             CSVPrinter csvPrinter = new CSVPrinter(writer, CSVFormat.POSTGRESQL_CSV)) {
-            csvPrinter.printRecord("id", "title", "status", "lastBidder", "currentPrice");
-            lots.stream()
-                    .map(lot -> Arrays.asList(
-                            lot.getId(),
-                            lot.getTitle(),
-                            lot.getStatus(),
-                            lot.getBidsById().isEmpty() ? "нет ставок" : lot.getBidsById().get(lot.getBidsById().size() - 1).getBidderName(),
-                            serviceUtilities.calculateCurrentPrice(lot)
-                    ))
-                    .forEach(record -> {
-                        try {
-                            csvPrinter.printRecord(record);
-                        } catch (IOException e) {
-                            e.printStackTrace();
-                            logger.error("Ошибка I/O в csvPrinter");
-                        }
-                    });
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        CSVPrinter csvPrinter = new CSVPrinter(writer, CSVFormat.POSTGRESQL_CSV);
+        csvPrinter.printRecord("id", "title", "status", "lastBidder", "currentPrice");
+        int afterId = 0;
+        List<LotCsvRow> rows;
+        do {
+            rows = lotRepository.findCsvRowsAfter(afterId, PageRequest.ofSize(exportPageSize));
+            for (LotCsvRow row : rows) {
+                csvPrinter.printRecord(row.id(), row.title(), row.status(), row.lastBidder(), row.currentPrice());
+                afterId = row.id();
+            }
             csvPrinter.flush();
-            return outputStream.toByteArray();
-        } catch (IOException e) {
-            e.printStackTrace();
-            logger.error("Ошибка I/O в потоке");
-            return new byte[0];
-        }
+        } while (rows.size() == exportPageSize);
+        logger.debug("Экспорт лотов завершен, последний id: {}", afterId);
+    }
+
+    /**
+     * Части импорта фиксируются по отдельности, поэтому метод не открывает общую транзакцию.
+     */
+    @Override
+    public LotImportResultDTO importLots(InputStream inputStream, LotImportFormat format) throws IOException {
+        logger.info("Запущен метод importLots, формат: {}", format);
+        return lotImporter.importLots(inputStream, format);
     }
 }
@@ -0,0 +1,71 @@
+package com.example.auction.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Полосатые (striped) блокировки по id лота. Все изменения одного лота на узле выполняются
+ * последовательно - вместе с транзакцией, - а разные лоты обрабатываются параллельно.
+ */
+@Component
+public class LotLockRegistry {
+
+    private final ReentrantLock[] stripes;
+
+    public LotLockRegistry(@Value("${auction.concurrency.lock-stripes:1024}") int stripeCount) {
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T withLock(int lotId, Supplier<T> action) {
+        ReentrantLock lock = stripes[stripeIndex(lotId)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Блокирует сразу несколько лотов. Полосы захватываются по возрастанию индекса,
+     * поэтому два таких вызова не могут заблокировать друг друга.
+     */
+    public <T> T withLocks(Collection<Integer> lotIds, Supplier<T> action) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (int lotId : lotIds) {
+            indexes.add(stripeIndex(lotId));
+        }
+        int locked = 0;
+        try {
+            for (int index : indexes) {
+                stripes[index].lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int index : indexes) {
+                if (locked-- == 0) {
+                    break;
+                }
+                stripes[index].unlock();
+            }
+        }
+    }
+
+    private int stripeIndex(int lotId) {
+        int hash = lotId * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+}
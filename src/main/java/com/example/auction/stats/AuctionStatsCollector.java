@@ -0,0 +1,117 @@
+package com.example.auction.stats;
+
+import com.example.auction.config.AuctionStatsProperties;
+import com.example.auction.dto.AuctionStatsDTO;
+import com.example.auction.dto.LotStatusStats;
+import com.example.auction.enums.LotStatus;
+import com.example.auction.repository.AuctionStatsRepository;
+import com.example.auction.utilities.ServiceUtilities;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Периодически сворачивает журнал изменений в сводные таблицы и строит из них снимок статистики.
+ * Запрос /stats отдает готовый снимок и не обращается к БД; данные отстают не больше чем на интервал свертки.
+ */
+@Component
+public class AuctionStatsCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuctionStatsCollector.class);
+
+    private final AuctionStatsRepository auctionStatsRepository;
+    private final AuctionStatsProperties properties;
+    private final ServiceUtilities serviceUtilities;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "auction-stats");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile AuctionStatsDTO snapshot;
+
+    public AuctionStatsCollector(AuctionStatsRepository auctionStatsRepository, AuctionStatsProperties properties,
+                                 ServiceUtilities serviceUtilities, TransactionTemplate transactionTemplate) {
+        this.auctionStatsRepository = auctionStatsRepository;
+        this.properties = properties;
+        this.serviceUtilities = serviceUtilities;
+        this.transactionTemplate = transactionTemplate;
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, properties.getInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return последний снимок или null, если статистика еще не собрана
+     */
+    public AuctionStatsDTO snapshot() {
+        return snapshot;
+    }
+
+    private void refresh() {
+        try {
+            fold();
+            snapshot = buildSnapshot();
+        } catch (RuntimeException e) {
+            logger.error("Ошибка обновления статистики аукциона: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Журнал сворачивается пакетами, каждый в своей транзакции, чтобы большой накопившийся журнал
+     * не держал одну долгую транзакцию.
+     */
+    private void fold() {
+        long total = 0;
+        Long batch;
+        do {
+            batch = transactionTemplate.execute(status -> auctionStatsRepository.tryLockFold()
+                    ? auctionStatsRepository.fold(properties.getBatchSize()) : null);
+            if (batch == null) {
+                logger.debug("Журнал статистики сворачивает другой узел");
+                return;
+            }
+            total += batch;
+        } while (batch >= properties.getBatchSize());
+        Timestamp now = serviceUtilities.currentBidTime();
+        auctionStatsRepository.deleteMinutesBefore(new Timestamp(now.getTime() - properties.getMinuteRetention().toMillis()));
+        logger.debug("Свернуто записей журнала статистики: {}", total);
+    }
+
+    private AuctionStatsDTO buildSnapshot() {
+        Timestamp now = serviceUtilities.currentBidTime();
+        Map<LotStatus, Long> lotCounts = new EnumMap<>(LotStatus.class);
+        Map<LotStatus, Long> turnover = new EnumMap<>(LotStatus.class);
+        for (LotStatus status : LotStatus.values()) {
+            lotCounts.put(status, 0L);
+            turnover.put(status, 0L);
+        }
+        long totalTurnover = 0;
+        for (LotStatusStats stats : auctionStatsRepository.findStatusStats()) {
+            lotCounts.put(stats.status(), stats.lotCount());
+            turnover.put(stats.status(), stats.turnover());
+            totalTurnover += stats.turnover();
+        }
+        AuctionStatsDTO stats = new AuctionStatsDTO();
+        stats.setLotCounts(lotCounts);
+        stats.setTurnover(turnover);
+        stats.setTotalTurnover(totalTurnover);
+        stats.setTopBidders(auctionStatsRepository.findTopBidders(properties.getTopBidders()));
+        stats.setBidsPerMinute(auctionStatsRepository.findBidsPerMinuteSince(
+                new Timestamp(now.getTime() - properties.getMinuteWindow().toMillis())));
+        stats.setRefreshedAt(now);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.auction.utilities;
+
+import com.example.auction.dto.CreationLotDTO;
+import com.example.auction.dto.FullLotDTO;
+import com.example.auction.dto.LotDto;
+import com.example.auction.dto.LotSummary;
+import com.example.auction.enums.LotStatus;
+import com.example.auction.model.Lot;
+import lombok.NoArgsConstructor;
+
+/**
+ * Отображение лотов в DTO без рефлексии. Список ставок лота не затрагивается.
+ */
+@NoArgsConstructor
+public class LotMapper {
+
+    public LotDto toLotDto(Lot lot) {
+        LotDto lotDto = new LotDto();
+        lotDto.setId(lot.getId());
+        lotDto.setStatus(statusName(lot.getStatus()));
+        lotDto.setTitle(lot.getTitle());
+        lotDto.setDescription(lot.getDescription());
+        lotDto.setStartPrice(lot.getStartPrice());
+        lotDto.setBidPrice(lot.getBidPrice());
+        return lotDto;
+    }
+
+    public LotDto toLotDto(LotSummary summary) {
+        LotDto lotDto = new LotDto();
+        lotDto.setId(summary.id());
+        lotDto.setStatus(statusName(summary.status()));
+        lotDto.setTitle(summary.title());
+        lotDto.setDescription(summary.description());
+        lotDto.setStartPrice(summary.startPrice());
+        lotDto.setBidPrice(summary.bidPrice());
+        return lotDto;
+    }
+
+    public FullLotDTO toFullLotDTO(Lot lot) {
+        FullLotDTO fullLotDTO = new FullLotDTO();
+        fullLotDTO.setId(lot.getId());
+        fullLotDTO.setStatus(lot.getStatus());
+        fullLotDTO.setTitle(lot.getTitle());
+        fullLotDTO.setDescription(lot.getDescription());
+        fullLotDTO.setStartPrice(lot.getStartPrice());
+        fullLotDTO.setBidPrice(lot.getBidPrice());
+        fullLotDTO.setOpenAt(lot.getOpenAt());
+        fullLotDTO.setCloseAt(lot.getCloseAt());
+        fullLotDTO.setVersion(lot.getVersion());
+        return fullLotDTO;
+    }
+
+    public Lot toLot(CreationLotDTO creationLotDTO) {
+        Lot lot = new Lot();
+        lot.setTitle(creationLotDTO.getTitle());
+        lot.setDescription(creationLotDTO.getDescription());
+        lot.setStartPrice(creationLotDTO.getStartPrice());
+        lot.setBidPrice(creationLotDTO.getBidPrice());
+        lot.setOpenAt(creationLotDTO.getOpenAt());
+        lot.setCloseAt(creationLotDTO.getCloseAt());
+        return lot;
+    }
+
+    private static String statusName(LotStatus status) {
+        return status == null ? null : status.name();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.auction.utilities;
+
+import com.example.auction.dto.CreationLotDTO;
+
+/**
+ * Проверка лота перед созданием; общая для POST /lot и импорта лотов.
+ */
+public final class LotValidator {
+
+    /**
+     * Длина столбцов lot.title и lot.description.
+     */
+    public static final int MAX_TEXT_LENGTH = 255;
+
+    private LotValidator() {
+    }
+
+    /**
+     * @return описание ошибки или null, если лот корректен
+     */
+    public static String validate(CreationLotDTO lot) {
+        if (lot.getTitle() == null || lot.getTitle().isBlank()) {
+            return "Не указано название лота";
+        }
+        if (lot.getTitle().length() > MAX_TEXT_LENGTH) {
+            return "Название лота длиннее " + MAX_TEXT_LENGTH + " символов";
+        }
+        if (lot.getDescription() == null || lot.getDescription().isBlank()) {
+            return "Не указано описание лота";
+        }
+        if (lot.getDescription().length() > MAX_TEXT_LENGTH) {
+            return "Описание лота длиннее " + MAX_TEXT_LENGTH + " символов";
+        }
+        if (lot.getStartPrice() <= 0) {
+            return "Начальная цена должна быть больше нуля";
+        }
+        if (lot.getBidPrice() <= 0) {
+            return "Шаг ставки должен быть больше нуля";
+        }
+        if (lot.getOpenAt() != null && lot.getCloseAt() != null && !lot.getCloseAt().after(lot.getOpenAt())) {
+            return "Время закрытия должно быть позже времени открытия";
+        }
+        return null;
+    }
+}
@@ -1,29 +1,53 @@
 package com.example.auction.utilities;
 
 import com.example.auction.dto.BidDTO;
-import com.example.auction.model.Bid;
+import com.example.auction.hotstore.HotLotStore;
 import com.example.auction.model.Lot;
-import lombok.NoArgsConstructor;
 
-import java.util.List;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 
-@NoArgsConstructor
 public class ServiceUtilities {
 
+    /**
+     * Длина столбца bid.bidder_name.
+     */
+    public static final int MAX_BIDDER_NAME_LENGTH = 255;
+
+    private final HotLotStore hotLotStore;
+
+    public ServiceUtilities(HotLotStore hotLotStore) {
+        this.hotLotStore = hotLotStore;
+    }
+
+    /**
+     * Хранилище открытых лотов используется, только если оно знает лот не хуже прочитанной версии.
+     */
     public int calculateCurrentPrice(Lot lot) {
-        int numberOfBids = lot.getBidsById().size();
-        return numberOfBids * lot.getBidPrice() + lot.getStartPrice();
+        return hotLotStore.currentPrice(lot.getId(), lot.getVersion(), lot.getCurrentPrice());
     }
 
     public BidDTO getLastBidDTO(Lot lot) {
-        List<Bid> bids = lot.getBidsById();
-        if (bids.isEmpty()) {
-            return new BidDTO();
-        }
-        Bid lastBid = bids.get(bids.size() - 1);
         BidDTO lastBidDTO = new BidDTO();
-        lastBidDTO.setBidderName(lastBid.getBidderName());
-        lastBidDTO.setBidTime(lastBid.getBidTime());
+        if (lot.getBidCount() == 0) {
+            return lastBidDTO;
+        }
+        if (hotLotStore.readLastBid(lot.getId(), lot.getVersion(), lastBidDTO)) {
+            return lastBidDTO;
+        }
+        lastBidDTO.setBidderName(lot.getLastBidderName());
+        lastBidDTO.setBidTime(lot.getLastBidTime());
         return lastBidDTO;
     }
+
+    /**
+     * Проверяется до приема ставки: ставку, уже подтвержденную клиенту, БД не должна отклонять.
+     */
+    public static boolean isValidBidderName(String bidderName) {
+        return bidderName != null && !bidderName.isBlank() && bidderName.length() <= MAX_BIDDER_NAME_LENGTH;
+    }
+
+    public Timestamp currentBidTime() {
+        return Timestamp.valueOf(LocalDateTime.now().plusHours(4));
+    }
 }